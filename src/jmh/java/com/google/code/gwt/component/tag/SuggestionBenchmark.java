@@ -0,0 +1,137 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.gwt.component.shared.SuggestionIndex;
+
+/**
+ * Benchmarks of one keystroke in select box: finding suggestions, removing
+ * already selected tags and looking up typed text in suggestions. Widget
+ * classes can not be loaded outside of browser, so loops of
+ * {@link InputTag} are repeated here over the same data structures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	/**
+	 * Number of shown suggestions, <code>0</code> means all
+	 */
+	@Param({ "20" })
+	public int limit;
+
+	private List<StringTag> tags;
+	private SuggestionIndex<StringTag> index;
+	private Map<String, Integer> selectedKeys;
+	private String[] queries;
+	/**
+	 * All suggestions of every query, equal queries share one list
+	 */
+	private List<List<StringTag>> suggestions;
+	private int query = 0;
+
+	@Setup
+	public void setUp() {
+		tags = TagData.tags(size, 42);
+		index = new SuggestionIndex<StringTag>(tags);
+		queries = TagData.queries(tags, 1024, 7);
+		Map<String, List<StringTag>> found = new HashMap<String, List<StringTag>>();
+		suggestions = new ArrayList<List<StringTag>>(queries.length);
+		for (String q : queries) {
+			if (!found.containsKey(q)) {
+				found.put(q, index.find(q));
+			}
+			suggestions.add(found.get(q));
+		}
+
+		// every tenth tag is selected
+		selectedKeys = new HashMap<String, Integer>();
+		Random random = new Random(3);
+		for (int i = 0; i < size / 10; i++) {
+			selectedKeys.put(tags.get(random.nextInt(size)).getKey(), 1);
+		}
+	}
+
+	/**
+	 * Linear filtering by {@link Tag#canBeSuggested(String)}, as select box
+	 * did before {@link SuggestionIndex}.
+	 */
+	@Benchmark
+	public List<StringTag> selectBoxScan() {
+		String text = queries[query++ & 1023];
+		List<StringTag> suggestions = new ArrayList<StringTag>();
+		for (StringTag t : tags) {
+			if (t.canBeSuggested(text)) {
+				suggestions.add(t);
+			}
+		}
+		return suggestions;
+	}
+
+	@Benchmark
+	public List<StringTag> selectBoxIndex() {
+		return index.find(queries[query++ & 1023], limit);
+	}
+
+	@Benchmark
+	public List<StringTag> selectBoxIndexAll() {
+		return index.find(queries[query++ & 1023]);
+	}
+
+	/**
+	 * Same as InputTag#removeDuplicates over all suggestions of text.
+	 * Suggestions are found in setup, so only filtering is measured.
+	 */
+	@Benchmark
+	public List<StringTag> removeDuplicates() {
+		List<StringTag> found = suggestions.get(query++ & 1023);
+		List<StringTag> filtered = new ArrayList<StringTag>(found.size());
+		for (StringTag t : found) {
+			if (!selectedKeys.containsKey(t.getKey())) {
+				filtered.add(t);
+			}
+		}
+		return filtered;
+	}
+
+	/**
+	 * Same as InputTag#findInSuggestedTags, typed text is searched in all
+	 * tags, which is the worst case.
+	 */
+	@Benchmark
+	public StringTag findInSuggestedTags() {
+		String text = queries[query++ & 1023];
+		String key = Tag.toKey(text);
+		for (StringTag t : tags) {
+			if (key.equals(t.getKey())) {
+				return t;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of {@link Tag} methods called for every tag by suggestions and
+ * duplicate checks. Every invocation goes through all tags.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TagBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	private List<StringTag> tags;
+	private StringTag[] copies;
+	private String[] queries;
+	private int query = 0;
+
+	@Setup
+	public void setUp() {
+		tags = TagData.tags(size, 42);
+		copies = new StringTag[size];
+		for (int i = 0; i < size; i++) {
+			String tag = tags.get(i).getTag();
+			// equal tag which differs in case every second time
+			copies[i] = new StringTag(tag, i % 2 == 0 ? tag : tag.toUpperCase());
+		}
+		queries = TagData.queries(tags, 1024, 7);
+	}
+
+	@Benchmark
+	public int canBeSuggested() {
+		String text = queries[query++ & 1023];
+		int count = 0;
+		for (StringTag t : tags) {
+			if (t.canBeSuggested(text)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int equalTags() {
+		int count = 0;
+		for (int i = 0; i < copies.length; i++) {
+			if (tags.get(i).equals(copies[i])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public void hashCodes(Blackhole blackhole) {
+		for (StringTag t : tags) {
+			blackhole.consume(t.hashCode());
+		}
+	}
+
+}
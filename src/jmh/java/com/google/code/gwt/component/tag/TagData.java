@@ -0,0 +1,86 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generator of benchmark data. Tags are composed from syllables chosen with
+ * Zipf-like distribution, so common prefixes are shared by many tags as in
+ * real vocabularies. Some tags are capitalized or consist of more words.
+ */
+final class TagData {
+
+	private static final String[] SYLLABLES = { "ja", "va", "script", "ma", "ri", "on", "te", "ka", "lo", "an",
+			"de", "sys", "tem", "web", "ser", "ver", "da", "ta", "ba", "se", "net", "work", "pro", "gram", "cli",
+			"ent", "com", "po", "nent", "in", "put", "tag", "gwt", "re", "ac", "tor", "li", "brar", "y", "test" };
+
+	private TagData() {
+	}
+
+	/**
+	 * @return distinct tags, the same for the same size and seed
+	 */
+	static List<StringTag> tags(int size, long seed) {
+		Random random = new Random(seed);
+		List<StringTag> tags = new ArrayList<StringTag>(size);
+		Set<String> keys = new HashSet<String>();
+		while (tags.size() < size) {
+			String tag = word(random);
+			int words = random.nextInt(10);
+			if (words == 0) {
+				tag += " " + word(random) + " " + word(random);
+			} else if (words < 3) {
+				tag += " " + word(random);
+			}
+			if (random.nextInt(5) == 0) {
+				tag = Character.toUpperCase(tag.charAt(0)) + tag.substring(1);
+			}
+			if (tags.size() > 0 && keys.contains(Tag.toKey(tag))) {
+				// longer vocabularies need more unique suffixes
+				tag += tags.size();
+			}
+			if (keys.add(Tag.toKey(tag))) {
+				tags.add(new StringTag(tag, tag));
+			}
+		}
+		return tags;
+	}
+
+	/**
+	 * @return prefixes of random tags of length from 1 to 4, every fifth query does not match any tag
+	 */
+	static String[] queries(List<StringTag> tags, int count, long seed) {
+		Random random = new Random(seed);
+		String[] queries = new String[count];
+		for (int i = 0; i < count; i++) {
+			if (i % 5 == 4) {
+				queries[i] = "qx" + random.nextInt(100);
+			} else {
+				String tag = tags.get(random.nextInt(tags.size())).getTag();
+				queries[i] = tag.substring(0, Math.min(tag.length(), 1 + random.nextInt(4)));
+			}
+		}
+		return queries;
+	}
+
+	private static String word(Random random) {
+		StringBuilder word = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int i = 0; i < syllables; i++) {
+			word.append(SYLLABLES[zipf(random, SYLLABLES.length)]);
+		}
+		return word.toString();
+	}
+
+	/**
+	 * @return index from 0 to n - 1, smaller indexes are more frequent
+	 */
+	private static int zipf(Random random, int n) {
+		double u = random.nextDouble();
+		return (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, u)) - 1);
+	}
+
+}
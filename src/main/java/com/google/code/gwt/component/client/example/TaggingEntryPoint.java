@@ -53,20 +53,33 @@ public class TaggingEntryPoint implements EntryPoint {
         ti3.setSuggestionDelegate(new SuggestionDelegateMock());
         ti3.setMode(InputTag.Mode.SELECT_BOX);
         
+        // select boxes share one dictionary of tags
+        SharedTagDictionary<StringTag> dictionary = new SharedTagDictionary<StringTag>(items);
+
         SelectBoxInputTag<StringTag> ti4 = new SelectBoxInputTag<StringTag>() {
 				@Override
 				protected StringTag createNewTag(String value) {
 					return new StringTag(null, value);
 				}
 		};
-        ti4.setSelectBoxTags(items);
+        ti4.setSelectBoxDictionary(dictionary);
         ti4.setWidth("400px");
+
+        SelectBoxInputTag<StringTag> ti5 = new SelectBoxInputTag<StringTag>() {
+				@Override
+				protected StringTag createNewTag(String value) {
+					return new StringTag(null, value);
+				}
+		};
+        ti5.setSelectBoxDictionary(dictionary);
+        ti5.setWidth("400px");
                  
 
         RootPanel.get("test").add(ti1);
         RootPanel.get("test").add(ti2);
         RootPanel.get("test").add(ti3);
         RootPanel.get("test").add(ti4);
+        RootPanel.get("test").add(ti5);
 
     }
 
@@ -0,0 +1,325 @@
+package com.google.code.gwt.component.shared;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.google.code.gwt.component.tag.Tag;
+
+/**
+ * Immutable index of tags for prefix suggestions. Index is plain Java, so the
+ * same implementation answers queries in browser and on server. <br/>
+ * Keys of tags ({@link Tag#getKey()}) are sorted once when index is built, so
+ * tags starting with given text are found by binary search. Every tag has a
+ * weight, the best <code>k</code> matches are retrieved by segment tree over
+ * weights in key order without sorting all matches. Tags with equal weight
+ * are returned in the same order as in original collection.
+ *
+ * @param <T>
+ */
+public class SuggestionIndex<T extends Tag<?>> {
+
+	private final List<T> tags;
+	/**
+	 * Sorted keys
+	 */
+	private final String[] keys;
+	/**
+	 * Position of tag in original collection for every key in {@link #keys}
+	 */
+	private final int[] positions;
+	/**
+	 * Weight of tag for every key in {@link #keys}
+	 */
+	private final double[] weights;
+	/**
+	 * Segment tree with index of the best key in range, leafs start at
+	 * <code>keys.length</code>
+	 */
+	private final int[] tree;
+	/**
+	 * <code>false</code> when all tags have the same weight, so they are
+	 * ordered only by position
+	 */
+	private final boolean weighted;
+	private final Comparator<Integer> ranking = new Comparator<Integer>() {
+
+		@Override
+		public int compare(Integer o1, Integer o2) {
+			return rank(o1, o2);
+		}
+	};
+
+	/**
+	 * Creates index where all tags have the same weight.
+	 *
+	 * @param tags indexed tags
+	 */
+	public SuggestionIndex(Collection<T> tags) {
+		this(tags, null);
+	}
+
+	/**
+	 * @param tags indexed tags
+	 * @param weigher weight of tags, when <code>null</code> all tags have the same weight
+	 */
+	public SuggestionIndex(Collection<T> tags, Weigher<? super T> weigher) {
+		this.tags = new ArrayList<T>(tags);
+		int n = this.tags.size();
+
+		Entry[] entries = new Entry[n];
+		for (int i = 0; i < n; i++) {
+			T tag = this.tags.get(i);
+			String key = tag.getKey();
+			entries[i] = new Entry(key != null ? key : "", i, weigher != null ? weigher.weigh(tag) : 0);
+		}
+		Arrays.sort(entries, new Comparator<Entry>() {
+
+			@Override
+			public int compare(Entry o1, Entry o2) {
+				int c = o1.key.compareTo(o2.key);
+				return c != 0 ? c : o1.position - o2.position;
+			}
+		});
+
+		keys = new String[n];
+		positions = new int[n];
+		weights = new double[n];
+		boolean differ = false;
+		for (int i = 0; i < n; i++) {
+			keys[i] = entries[i].key;
+			positions[i] = entries[i].position;
+			weights[i] = entries[i].weight;
+			differ |= weights[i] != weights[0];
+		}
+		weighted = differ;
+
+		tree = new int[2 * n];
+		for (int i = 0; i < n; i++) {
+			tree[n + i] = i;
+		}
+		for (int i = n - 1; i > 0; i--) {
+			tree[i] = best(tree[2 * i], tree[2 * i + 1]);
+		}
+	}
+
+	/**
+	 * Finds all tags which key starts with key of given text. For empty text
+	 * all tags are returned.
+	 *
+	 * @param text plain text from input
+	 * @return new list of matched tags, ordered by weight
+	 */
+	public List<T> find(String text) {
+		return find(text, 0);
+	}
+
+	/**
+	 * Finds the best tags which key starts with key of given text. For empty
+	 * text the best of all tags are returned.
+	 *
+	 * @param text plain text from input
+	 * @param limit maximal number of returned tags, <code>0</code> means no limit
+	 * @return new list of matched tags, ordered by weight
+	 */
+	public List<T> find(String text, int limit) {
+		String prefix = toPrefix(text);
+		int from = lowerBound(prefix);
+		int to = upperBound(from, prefix);
+		int count = to - from;
+		if (!weighted && count == keys.length) {
+			// all tags in original order
+			return new ArrayList<T>(limit <= 0 || limit >= count ? tags : tags.subList(0, limit));
+		}
+		if (!weighted && (limit <= 0 || limit >= count)) {
+			// all matches in original order
+			int[] matched = new int[count];
+			System.arraycopy(positions, from, matched, 0, count);
+			Arrays.sort(matched);
+			List<T> result = new ArrayList<T>(count);
+			for (int i = 0; i < count; i++) {
+				result.add(tags.get(matched[i]));
+			}
+			return result;
+		}
+		if (limit <= 0 || limit >= count) {
+			// all matches are returned
+			Integer[] matched = new Integer[count];
+			for (int i = 0; i < count; i++) {
+				matched[i] = from + i;
+			}
+			Arrays.sort(matched, ranking);
+			List<T> result = new ArrayList<T>(count);
+			for (int i = 0; i < count; i++) {
+				result.add(tags.get(positions[matched[i]]));
+			}
+			return result;
+		}
+
+		// the best matches are taken from ranges ordered by their best key
+		List<T> result = new ArrayList<T>(limit);
+		PriorityQueue<Range> ranges = new PriorityQueue<Range>(11, new Comparator<Range>() {
+
+			@Override
+			public int compare(Range o1, Range o2) {
+				return rank(o1.best, o2.best);
+			}
+		});
+		ranges.add(new Range(from, to, query(from, to)));
+		while (result.size() < limit) {
+			Range range = ranges.poll();
+			result.add(tags.get(positions[range.best]));
+			if (range.from < range.best) {
+				ranges.add(new Range(range.from, range.best, query(range.from, range.best)));
+			}
+			if (range.best + 1 < range.to) {
+				ranges.add(new Range(range.best + 1, range.to, query(range.best + 1, range.to)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds tag which key is equal to key of given text.
+	 *
+	 * @param text plain text
+	 * @return the first such tag of original collection, <code>null</code> when there is no such tag
+	 */
+	public T get(String text) {
+		String key = toPrefix(text);
+		int from = lowerBound(key);
+		// equal keys are ordered by position
+		return from < keys.length && keys[from].equals(key) ? tags.get(positions[from]) : null;
+	}
+
+	/**
+	 * @param text plain text from input
+	 * @return number of tags which key starts with key of given text
+	 */
+	public int count(String text) {
+		String prefix = toPrefix(text);
+		int from = lowerBound(prefix);
+		return upperBound(from, prefix) - from;
+	}
+
+	/**
+	 * @return number of indexed tags
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return key of text, empty for blank text
+	 */
+	private static String toPrefix(String text) {
+		return text == null || text.trim().length() == 0 ? "" : Tag.toKey(text);
+	}
+
+	/**
+	 * @return index of the first key which is greater or equal to prefix
+	 */
+	private int lowerBound(String prefix) {
+		int low = 0;
+		int high = keys.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid].compareTo(prefix) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return index after the last key which starts with prefix
+	 */
+	private int upperBound(int from, String prefix) {
+		int low = from;
+		int high = keys.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid].startsWith(prefix)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return index of the best key in range from (inclusive) to (exclusive)
+	 */
+	private int query(int from, int to) {
+		int n = keys.length;
+		int best = -1;
+		for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+			if ((l & 1) == 1) {
+				best = best < 0 ? tree[l] : best(best, tree[l]);
+				l++;
+			}
+			if ((r & 1) == 1) {
+				r--;
+				best = best < 0 ? tree[r] : best(best, tree[r]);
+			}
+		}
+		return best;
+	}
+
+	private int best(int a, int b) {
+		return rank(a, b) <= 0 ? a : b;
+	}
+
+	/**
+	 * Compares keys by weight (descending), then by position in original
+	 * collection.
+	 */
+	private int rank(int a, int b) {
+		if (weights[a] != weights[b]) {
+			return weights[a] > weights[b] ? -1 : 1;
+		}
+		return positions[a] - positions[b];
+	}
+
+	/**
+	 * Weight of tag in index, tags with higher weight are suggested first.
+	 */
+	public interface Weigher<T> {
+
+		public double weigh(T tag);
+
+	}
+
+	private static class Entry {
+
+		private final String key;
+		private final int position;
+		private final double weight;
+
+		public Entry(String key, int position, double weight) {
+			this.key = key;
+			this.position = position;
+			this.weight = weight;
+		}
+	}
+
+	private static class Range {
+
+		private final int from;
+		private final int to;
+		private final int best;
+
+		public Range(int from, int to, int best) {
+			this.from = from;
+			this.to = to;
+			this.best = best;
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+/**
+ * Validator of new tags which validates many tags at once, e.g. by one
+ * request to server. Tags validated by this validator are shown as pending
+ * until their verdict is known, invalid tags are then removed. When
+ * validation fails, tags are kept as unverified and can be validated again
+ * by {@link InputTag#revalidateTags()}. Only plain tags from input text are
+ * validated, suggested tags are not validated.
+ *
+ * @see BatchingTagValidator
+ */
+public interface AsyncTagValidator {
+
+	/**
+	 * Validates tags.
+	 *
+	 * @param tags plain tags
+	 * @param callback receives verdict for every tag, missing verdict means that tag is not valid
+	 */
+	public void validate(List<String> tags, AsyncCallback<Map<String, Boolean>> callback);
+
+}
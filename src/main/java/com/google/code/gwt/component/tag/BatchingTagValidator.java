@@ -0,0 +1,188 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+/**
+ * Validator which batches and caches validation of another
+ * {@link AsyncTagValidator}. Tags requested within one event loop turn are
+ * sent to delegate together, in batches of at most <code>batchSize</code>
+ * tags. Tag which is already being validated is not sent again, its request
+ * waits for the verdict in flight. Verdicts are kept in bounded LRU cache.
+ * Failed validations are not cached.
+ */
+public class BatchingTagValidator implements AsyncTagValidator {
+
+	private final AsyncTagValidator delegate;
+	private final int batchSize;
+	private final Map<String, Boolean> verdicts;
+	/**
+	 * Requests waiting for verdict of tag, for tags queued or in flight
+	 */
+	private final Map<String, List<Request>> waiting = new HashMap<String, List<Request>>();
+	/**
+	 * Tags which are not sent to delegate yet
+	 */
+	private final Set<String> queued = new LinkedHashSet<String>();
+	private boolean flushScheduled = false;
+
+	/**
+	 * @param delegate validator which validates tags
+	 * @param capacity maximal number of cached verdicts
+	 * @param batchSize maximal number of tags sent to delegate at once, <code>0</code> means no limit
+	 */
+	public BatchingTagValidator(AsyncTagValidator delegate, final int capacity, int batchSize) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Cache capacity has to be positive!");
+		}
+		this.delegate = delegate;
+		this.batchSize = batchSize;
+		this.verdicts = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public void validate(List<String> tags, AsyncCallback<Map<String, Boolean>> callback) {
+		Request request = new Request(callback);
+		for (String tag : tags) {
+			Boolean verdict = verdicts.get(tag);
+			if (verdict != null) {
+				request.verdicts.put(tag, verdict);
+				continue;
+			}
+			List<Request> requests = waiting.get(tag);
+			if (requests == null) {
+				requests = new ArrayList<Request>();
+				waiting.put(tag, requests);
+				queued.add(tag);
+			}
+			if (!requests.contains(request)) {
+				requests.add(request);
+				request.remaining++;
+			}
+		}
+
+		if (request.remaining == 0) {
+			callback.onSuccess(request.verdicts);
+		} else if (!flushScheduled) {
+			flushScheduled = true;
+			Scheduler.get().scheduleFinally(new ScheduledCommand() {
+
+				@Override
+				public void execute() {
+					flush();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Sends queued tags to delegate.
+	 */
+	private void flush() {
+		flushScheduled = false;
+		List<String> batch = new ArrayList<String>();
+		for (String tag : queued) {
+			batch.add(tag);
+			if (batch.size() == batchSize) {
+				send(batch);
+				batch = new ArrayList<String>();
+			}
+		}
+		queued.clear();
+		if (!batch.isEmpty()) {
+			send(batch);
+		}
+	}
+
+	private void send(final List<String> batch) {
+		delegate.validate(batch, new AsyncCallback<Map<String, Boolean>>() {
+
+			@Override
+			public void onSuccess(Map<String, Boolean> result) {
+				for (String tag : batch) {
+					Boolean verdict = result != null && Boolean.TRUE.equals(result.get(tag));
+					verdicts.put(tag, verdict);
+					List<Request> requests = waiting.remove(tag);
+					if (requests != null) {
+						for (Request request : requests) {
+							request.resolve(tag, verdict);
+						}
+					}
+				}
+			}
+
+			@Override
+			public void onFailure(Throwable caught) {
+				for (String tag : batch) {
+					List<Request> requests = waiting.remove(tag);
+					if (requests != null) {
+						for (Request request : requests) {
+							request.fail(caught);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Removes all cached verdicts.
+	 */
+	public void invalidate() {
+		verdicts.clear();
+	}
+
+	/**
+	 * @return the delegate
+	 */
+	public AsyncTagValidator getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * One call of {@link BatchingTagValidator#validate(List, AsyncCallback)}.
+	 */
+	private static class Request {
+
+		private final AsyncCallback<Map<String, Boolean>> callback;
+		private final Map<String, Boolean> verdicts = new HashMap<String, Boolean>();
+		private int remaining = 0;
+		private boolean failed = false;
+
+		public Request(AsyncCallback<Map<String, Boolean>> callback) {
+			this.callback = callback;
+		}
+
+		public void resolve(String tag, Boolean verdict) {
+			verdicts.put(tag, verdict);
+			if (--remaining == 0 && !failed) {
+				callback.onSuccess(verdicts);
+			}
+		}
+
+		public void fail(Throwable caught) {
+			if (!failed) {
+				failed = true;
+				callback.onFailure(caught);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,228 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.user.client.Command;
+
+/**
+ * Suggestion callback which caches suggestions of another {@link SuggestionCallback}.
+ * Results are kept in bounded LRU cache by key of text for which they were found. When
+ * the text is not cached but some of its prefixes is cached with complete result,
+ * suggestions are computed locally by filtering cached result, so e.g. "jav" is
+ * answered from the result of "ja". <br/>
+ * Refinement expects that every suggestion of text is also suggestion of its
+ * prefix. Result is complete when delegate returned less suggestions than
+ * <code>resultLimit</code> and less than was requested by
+ * {@link RequestCallback#getMaxSuggestions()}.
+ *
+ * @param <T>
+ */
+public class CachingSuggestionCallback<T extends Tag<?>> implements SuggestionCallback<T>, SuggestionDelegateLifecycle {
+
+	private final SuggestionCallback<T> delegate;
+	private final int resultLimit;
+	private final Map<String, CacheEntry<T>> cache;
+	private int hitCount = 0;
+	private int missCount = 0;
+	/**
+	 * Incremented by {@link #invalidate()}, so results of requests sent before
+	 * are not cached
+	 */
+	private int generation = 0;
+
+	/**
+	 * @param delegate callback which results are cached
+	 * @param capacity maximal number of cached texts
+	 */
+	public CachingSuggestionCallback(SuggestionCallback<T> delegate, int capacity) {
+		this(delegate, capacity, 0);
+	}
+
+	/**
+	 * @param delegate callback which results are cached
+	 * @param capacity maximal number of cached texts
+	 * @param resultLimit number of suggestions from which delegate truncates results, <code>0</code> when delegate
+	 *            never truncates
+	 */
+	public CachingSuggestionCallback(SuggestionCallback<T> delegate, final int capacity, int resultLimit) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Cache capacity has to be positive!");
+		}
+		this.delegate = delegate;
+		this.resultLimit = resultLimit;
+		this.cache = new LinkedHashMap<String, CacheEntry<T>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<T>> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public void findSuggestions(final String text, final Callback<T> callback) {
+		// texts with the same key share cache entry, e.g. "Ja" and "ja"
+		final String key = text != null ? Tag.toKey(text) : "";
+		final int generation = this.generation;
+		final int maxSuggestions = callback instanceof RequestCallback
+				? ((RequestCallback<T>) callback).getMaxSuggestions() : 0;
+
+		CacheEntry<T> entry = cache.get(key);
+		if (entry != null && !entry.complete && !isEnough(entry.suggestions, maxSuggestions)) {
+			// truncated result of smaller request
+			entry = null;
+		} else if (entry == null) {
+			entry = refine(key);
+		}
+		if (entry != null) {
+			hitCount++;
+			callback.found(new ArrayList<T>(entry.suggestions));
+			return;
+		}
+
+		missCount++;
+		delegate.findSuggestions(text, new RequestCallback<T>() {
+
+			@Override
+			public int getId() {
+				return callback.getId();
+			}
+
+			@Override
+			public boolean found(List<T> suggestions) {
+				// result found before invalidation is not cached
+				if (generation == CachingSuggestionCallback.this.generation) {
+					boolean complete = isComplete(suggestions, maxSuggestions);
+					cache.put(key, new CacheEntry<T>(new ArrayList<T>(suggestions), complete));
+				}
+				return callback.found(suggestions);
+			}
+
+			@Override
+			public int getMaxSuggestions() {
+				return maxSuggestions;
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return callback instanceof RequestCallback && ((RequestCallback<T>) callback).isCancelled();
+			}
+
+			@Override
+			public void setCancelCommand(Command cancelCommand) {
+				if (callback instanceof RequestCallback) {
+					((RequestCallback<T>) callback).setCancelCommand(cancelCommand);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Tries to compute suggestions of given text from complete result of the
+	 * longest cached prefix.
+	 *
+	 * @param key key of text, see {@link Tag#toKey(String)}
+	 * @return new cache entry or <code>null</code> when there is no usable prefix
+	 */
+	private CacheEntry<T> refine(String key) {
+		for (int i = key.length() - 1; i >= 0; i--) {
+			CacheEntry<T> prefixEntry = cache.get(key.substring(0, i));
+			if (prefixEntry != null && prefixEntry.complete) {
+				List<T> suggestions = new ArrayList<T>();
+				for (T t : prefixEntry.suggestions) {
+					if (matches(t, key)) {
+						suggestions.add(t);
+					}
+				}
+				CacheEntry<T> entry = new CacheEntry<T>(suggestions, true);
+				cache.put(key, entry);
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Decides whether cached suggestion of some prefix is also suggestion of
+	 * given text. By default {@link Tag#startsWithKey(String)} is used.
+	 *
+	 * @param tag cached suggestion
+	 * @param key key of text from input, see {@link Tag#toKey(String)}
+	 * @return <code>true</code> when tag is suggestion of text
+	 */
+	protected boolean matches(T tag, String key) {
+		return tag.startsWithKey(key);
+	}
+
+	private static boolean isEnough(List<?> suggestions, int maxSuggestions) {
+		return maxSuggestions > 0 && suggestions.size() >= maxSuggestions;
+	}
+
+	private boolean isComplete(List<T> suggestions, int maxSuggestions) {
+		return (resultLimit <= 0 || suggestions.size() < resultLimit)
+				&& (maxSuggestions <= 0 || suggestions.size() < maxSuggestions);
+	}
+
+	/**
+	 * Passes lifecycle to delegate, e.g. to {@link SharedTagDictionary}.
+	 */
+	@Override
+	public void onAttach(InputTag<?> inputTag) {
+		if (delegate instanceof SuggestionDelegateLifecycle) {
+			((SuggestionDelegateLifecycle) delegate).onAttach(inputTag);
+		}
+	}
+
+	@Override
+	public void onDetach(InputTag<?> inputTag) {
+		if (delegate instanceof SuggestionDelegateLifecycle) {
+			((SuggestionDelegateLifecycle) delegate).onDetach(inputTag);
+		}
+	}
+
+	/**
+	 * Removes all cached results.
+	 */
+	public void invalidate() {
+		cache.clear();
+		generation++;
+	}
+
+	/**
+	 * @return number of texts answered from cache, including refined ones
+	 */
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return number of texts passed to delegate
+	 */
+	public int getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the delegate
+	 */
+	public SuggestionCallback<T> getDelegate() {
+		return delegate;
+	}
+
+	private static class CacheEntry<T> {
+
+		private final List<T> suggestions;
+		private final boolean complete;
+
+		public CacheEntry(List<T> suggestions, boolean complete) {
+			this.suggestions = suggestions;
+			this.complete = complete;
+		}
+	}
+
+}
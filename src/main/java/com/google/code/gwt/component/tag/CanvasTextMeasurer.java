@@ -0,0 +1,106 @@
+package com.google.code.gwt.component.tag;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Text measurer which does not read layout of page. Text is measured by
+ * <code>measureText</code> of canvas 2d context, width of every character is
+ * measured only once per font and cached. Font of input is read from its
+ * computed style when input is measured for the first time. <br/>
+ * Text can not be measured while input is not attached or when browser does
+ * not support canvas.
+ */
+public class CanvasTextMeasurer implements TextMeasurer {
+
+	private static CanvasTextMeasurer instance;
+	private static boolean supportChecked = false;
+	/**
+	 * Canvas 2d context
+	 */
+	private JavaScriptObject context;
+	/**
+	 * Cached character widths by font
+	 */
+	private JavaScriptObject widths;
+
+	/**
+	 * Returns measurer shared by all components.
+	 *
+	 * @return measurer or <code>null</code> when browser does not support canvas
+	 */
+	public static CanvasTextMeasurer get() {
+		if (!supportChecked) {
+			supportChecked = true;
+			if (isSupported()) {
+				instance = new CanvasTextMeasurer();
+			}
+		}
+		return instance;
+	}
+
+	public static native boolean isSupported() /*-{
+		var canvas = $doc.createElement('canvas');
+		if (!canvas.getContext) {
+			return false;
+		}
+		var context = canvas.getContext('2d');
+		return !!(context && context.measureText);
+	}-*/;
+
+	@Override
+	public int measureWidth(Element input, String text) {
+		String font = getFont(input);
+		if (font == null) {
+			return -1;
+		}
+		return (int) Math.ceil(measure(font, text));
+	}
+
+	private native double measure(String font, String text) /*-{
+		var context = this.@com.google.code.gwt.component.tag.CanvasTextMeasurer::context;
+		if (!context) {
+			context = $doc.createElement('canvas').getContext('2d');
+			this.@com.google.code.gwt.component.tag.CanvasTextMeasurer::context = context;
+			this.@com.google.code.gwt.component.tag.CanvasTextMeasurer::widths = {};
+		}
+		var widths = this.@com.google.code.gwt.component.tag.CanvasTextMeasurer::widths;
+		var fontWidths = widths[font];
+		if (!fontWidths) {
+			fontWidths = widths[font] = {};
+		}
+
+		var width = 0;
+		for (var i = 0; i < text.length; i++) {
+			var c = text.charAt(i);
+			var w = fontWidths[c];
+			if (w === undefined) {
+				context.font = font;
+				w = fontWidths[c] = context.measureText(c).width;
+			}
+			width += w;
+		}
+		return width;
+	}-*/;
+
+	/**
+	 * @return font of input or <code>null</code> when it is not known yet
+	 */
+	private static native String getFont(Element input) /*-{
+		if (input.__inputTagFont) {
+			return input.__inputTagFont;
+		}
+		var view = input.ownerDocument.defaultView;
+		if (!view || !view.getComputedStyle) {
+			return null;
+		}
+		var style = view.getComputedStyle(input, null);
+		if (!style || !style.fontSize || !style.fontFamily) {
+			return null;
+		}
+		input.__inputTagFont = [ style.fontStyle, style.fontVariant, style.fontWeight, style.fontSize,
+				style.fontFamily ].join(' ');
+		return input.__inputTagFont;
+	}-*/;
+
+}
@@ -1,6 +1,7 @@
 package com.google.code.gwt.component.tag;
 
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.user.client.DOM;
 
 /**
@@ -11,12 +12,26 @@ public class DefaultSuggestionPresenter<T extends Tag<?>> implements SuggestionP
 	@Override
 	public void createSuggestion(Element e, T tag, String text) {
 		Element span = DOM.createSpan();
-		if (tag.getTag().startsWith(text)) {
-			span.setInnerHTML("<strong>" + text + "</strong>" + tag.getTag().substring(text.length()));
+		String label = tag.getTag();
+		String key = Tag.toKey(text);
+		int length = tag.startsWithKey(key) ? getMatchedLength(label, key) : 0;
+		if (length > 0) {
+			span.setInnerHTML("<strong>" + SafeHtmlUtils.htmlEscape(label.substring(0, length)) + "</strong>"
+					+ SafeHtmlUtils.htmlEscape(label.substring(length)));
 		} else {
-			span.setInnerText(tag.getTag());
+			span.setInnerText(label);
 		}
 		e.appendChild(span);
 	}
 
+	/**
+	 * @return length of the shortest prefix of label which key covers given key
+	 */
+	private static int getMatchedLength(String label, String key) {
+		if (key.length() == 0) {
+			return 0;
+		}
+		return Tag.getPrefixLength(label, key.length());
+	}
+
 }
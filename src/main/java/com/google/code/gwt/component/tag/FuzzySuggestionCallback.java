@@ -0,0 +1,324 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.code.gwt.component.shared.SuggestionIndex;
+
+/**
+ * Suggestion callback which tolerates typos. Tags starting with typed text
+ * are suggested first, then tags with some prefix within
+ * <code>maxDistance</code> edits from typed text. Edit is insertion, deletion,
+ * substitution or transposition of adjacent characters. <br/>
+ * Candidates of typo matches are found by index of key bigrams: a prefix
+ * within <code>k</code> edits shares at least <code>n - 3k</code> of
+ * <code>n</code> distinct bigrams of text. Only candidates passing this filter
+ * are verified, the most promising first, and verification stops after
+ * <code>maxCandidates</code> candidates or <code>timeBudget</code>
+ * milliseconds, so cost of keystroke stays bounded for large dictionaries.
+ * Typos are not searched for texts shorter than <code>3k + 1</code>
+ * characters. <br/>
+ * Instance is not thread safe.
+ *
+ * @param <T>
+ */
+public class FuzzySuggestionCallback<T extends Tag<?>> implements SuggestionCallback<T> {
+
+	/**
+	 * Character which pads start of keys, so the first characters form bigrams too
+	 */
+	private static final char PAD = '\u0000';
+	/**
+	 * Maximal number of bigrams changed by one edit
+	 */
+	private static final int GRAMS_PER_EDIT = 3;
+
+	private final List<T> tags;
+	private final String[] keys;
+	private final SuggestionIndex<T> prefixIndex;
+	/**
+	 * Sorted identifiers of tags for every bigram of keys
+	 */
+	private final Map<String, int[]> postings;
+	/**
+	 * Number of shared bigrams for every tag, reused by queries
+	 */
+	private final int[] counts;
+	private int maxDistance = 1;
+	private int maxCandidates = 200;
+	private int timeBudget = 15;
+	private int limit = 20;
+
+	public FuzzySuggestionCallback(Collection<T> tags) {
+		this.tags = new ArrayList<T>(tags);
+		this.prefixIndex = new SuggestionIndex<T>(this.tags);
+		this.keys = new String[this.tags.size()];
+		this.counts = new int[this.tags.size()];
+
+		Map<String, IntList> lists = new HashMap<String, IntList>();
+		for (int i = 0; i < keys.length; i++) {
+			String key = this.tags.get(i).getKey();
+			keys[i] = key != null ? key : "";
+			for (String gram : bigrams(keys[i])) {
+				IntList list = lists.get(gram);
+				if (list == null) {
+					list = new IntList();
+					lists.put(gram, list);
+				}
+				list.add(i);
+			}
+		}
+		postings = new HashMap<String, int[]>();
+		for (Map.Entry<String, IntList> e : lists.entrySet()) {
+			postings.put(e.getKey(), e.getValue().toArray());
+		}
+	}
+
+	@Override
+	public void findSuggestions(String text, Callback<T> callback) {
+		int max = callback instanceof RequestCallback ? ((RequestCallback<T>) callback).getMaxSuggestions() : 0;
+		callback.found(suggest(text, max > 0 && (limit <= 0 || max < limit) ? max : limit));
+	}
+
+	/**
+	 * Finds suggestions for given text.
+	 *
+	 * @param text plain text from input
+	 * @return tags starting with text followed by tags with typo, at most <code>limit</code> tags
+	 */
+	public List<T> suggest(String text) {
+		return suggest(text, limit);
+	}
+
+	private List<T> suggest(String text, int limit) {
+		List<T> result = prefixIndex.find(text, limit);
+		if (text == null || isFull(result, limit)) {
+			return result;
+		}
+		String query = Tag.toKey(text);
+		if (query.trim().length() == 0 || query.length() <= GRAMS_PER_EDIT * maxDistance) {
+			return result;
+		}
+
+		long deadline = System.currentTimeMillis() + timeBudget;
+		List<String> grams = bigrams(query);
+		int threshold = grams.size() - GRAMS_PER_EDIT * maxDistance;
+
+		// count shared bigrams
+		IntList touched = new IntList();
+		for (String gram : grams) {
+			int[] ids = postings.get(gram);
+			if (ids != null) {
+				for (int i = 0; i < ids.length; i++) {
+					if (counts[ids[i]]++ == 0) {
+						touched.add(ids[i]);
+					}
+				}
+			}
+			if (System.currentTimeMillis() > deadline) {
+				break;
+			}
+		}
+
+		// candidates by number of shared bigrams, the most promising first
+		IntList[] buckets = new IntList[grams.size() + 1];
+		for (int i = 0; i < touched.size(); i++) {
+			int id = touched.get(i);
+			int count = counts[id];
+			counts[id] = 0;
+			if (count >= threshold) {
+				if (buckets[count] == null) {
+					buckets[count] = new IntList();
+				}
+				buckets[count].add(id);
+			}
+		}
+
+		// verify candidates within budget
+		List<List<T>> byDistance = new ArrayList<List<T>>();
+		for (int d = 0; d <= maxDistance; d++) {
+			byDistance.add(new ArrayList<T>());
+		}
+		int verified = 0;
+		verification: for (int count = buckets.length - 1; count >= 0; count--) {
+			if (buckets[count] == null) {
+				continue;
+			}
+			for (int i = 0; i < buckets[count].size(); i++) {
+				if (verified++ >= maxCandidates || ((verified & 31) == 0 && System.currentTimeMillis() > deadline)) {
+					break verification;
+				}
+				int id = buckets[count].get(i);
+				int distance = prefixDistance(query, keys[id], maxDistance);
+				// distance 0 are prefix matches which are already in result
+				if (distance > 0 && distance <= maxDistance) {
+					byDistance.get(distance).add(tags.get(id));
+				}
+			}
+		}
+
+		for (List<T> matched : byDistance) {
+			for (T t : matched) {
+				if (isFull(result, limit)) {
+					return result;
+				}
+				result.add(t);
+			}
+		}
+		return result;
+	}
+
+	private static boolean isFull(List<?> result, int limit) {
+		return limit > 0 && result.size() >= limit;
+	}
+
+	/**
+	 * Computes the smallest edit distance (optimal string alignment) between
+	 * text and any prefix of key.
+	 *
+	 * @return distance or <code>max + 1</code> when distance is greater than max
+	 */
+	static int prefixDistance(String text, String key, int max) {
+		int columns = Math.min(key.length(), text.length() + max) + 1;
+		int[] beforePrevious = new int[columns];
+		int[] previous = new int[columns];
+		int[] current = new int[columns];
+		for (int j = 0; j < columns; j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= text.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			char c = text.charAt(i - 1);
+			for (int j = 1; j < columns; j++) {
+				char k = key.charAt(j - 1);
+				int cost = c == k ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+				if (i > 1 && j > 1 && c == key.charAt(j - 2) && text.charAt(i - 2) == k) {
+					current[j] = Math.min(current[j], beforePrevious[j - 2] + cost);
+				}
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > max) {
+				return max + 1;
+			}
+			int[] swap = beforePrevious;
+			beforePrevious = previous;
+			previous = current;
+			current = swap;
+		}
+		int distance = max + 1;
+		for (int j = 0; j < columns; j++) {
+			distance = Math.min(distance, previous[j]);
+		}
+		return distance;
+	}
+
+	/**
+	 * @return distinct bigrams of key padded at start
+	 */
+	private static List<String> bigrams(String key) {
+		List<String> grams = new ArrayList<String>(key.length());
+		char previous = PAD;
+		for (int i = 0; i < key.length(); i++) {
+			String gram = new String(new char[] { previous, key.charAt(i) });
+			if (!grams.contains(gram)) {
+				grams.add(gram);
+			}
+			previous = key.charAt(i);
+		}
+		return grams;
+	}
+
+	/**
+	 * @return the maxDistance
+	 */
+	public int getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * @param maxDistance maximal number of typos (edits) in suggested tag
+	 */
+	public void setMaxDistance(int maxDistance) {
+		this.maxDistance = maxDistance;
+	}
+
+	/**
+	 * @return the maxCandidates
+	 */
+	public int getMaxCandidates() {
+		return maxCandidates;
+	}
+
+	/**
+	 * @param maxCandidates maximal number of verified typo candidates per query
+	 */
+	public void setMaxCandidates(int maxCandidates) {
+		this.maxCandidates = maxCandidates;
+	}
+
+	/**
+	 * @return the timeBudget
+	 */
+	public int getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * @param timeBudget maximal time of searching typo candidates per query in milliseconds
+	 */
+	public void setTimeBudget(int timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	/**
+	 * @return the limit
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @param limit maximal number of suggestions, <code>0</code> means no limit
+	 */
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	/**
+	 * Growable list of primitive integers.
+	 */
+	private static class IntList {
+
+		private int[] values = new int[4];
+		private int size = 0;
+
+		public void add(int value) {
+			if (size == values.length) {
+				int[] grown = new int[size * 2];
+				System.arraycopy(values, 0, grown, 0, size);
+				values = grown;
+			}
+			values[size++] = value;
+		}
+
+		public int get(int index) {
+			return values[index];
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public int[] toArray() {
+			int[] array = new int[size];
+			System.arraycopy(values, 0, array, 0, size);
+			return array;
+		}
+	}
+
+}
@@ -1,23 +1,38 @@
 package com.google.code.gwt.component.tag;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
 import com.google.gwt.dom.client.InputElement;
 import com.google.gwt.dom.client.LIElement;
 import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.SpanElement;
 import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.dom.client.Style.Overflow;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.dom.client.Style.Visibility;
 import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.EventListener;
+import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.FocusWidget;
 import com.google.gwt.user.client.ui.RootPanel;
 
@@ -38,11 +53,12 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 */
 	private Element tagList;
 	/**
-	 * Suggestions list
+	 * Suggestions list, <code>null</code> until editing layout is created
 	 */
 	private Element suggestionList;
 	/**
-	 * Currently active input text
+	 * Currently active input text, <code>null</code> until editing layout is
+	 * created by {@link #ensureEditingLayout()}
 	 */
 	private InputElement inputText;
 	/**
@@ -50,6 +66,11 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * new tag
 	 */
 	private SpanElement widthSpanTester;
+	/**
+	 * Measurer of input text width, when <code>null</code> or when it can not
+	 * measure text, {@link #widthSpanTester} is used
+	 */
+	private TextMeasurer textMeasurer = CanvasTextMeasurer.get();
 	/*
 	 * ----------------------------------
 	 * -- Component Business Objects --
@@ -59,6 +80,10 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * Tags
 	 */
 	private List<ItemTag<T>> tags;
+	/**
+	 * Number of selected tags by their {@link Tag#getKey()}
+	 */
+	private Map<String, Integer> selectedKeys;
 	/**
 	 * Reference to previously suggested tags
 	 */
@@ -67,6 +92,23 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * New tags validator
 	 */
 	private TagValidator tagValidator;
+	/**
+	 * Validator of new tags which are shown as pending until it confirms them
+	 */
+	private AsyncTagValidator asyncTagValidator;
+	/**
+	 * Tags added since the last {@link TagsChangedEvent}
+	 */
+	private List<T> addedTags;
+	/**
+	 * Tags removed since the last {@link TagsChangedEvent}
+	 */
+	private List<T> removedTags;
+	/**
+	 * Tags waiting for verdict of {@link #asyncTagValidator}, they are not
+	 * reported by {@link TagsChangedEvent} until they are confirmed
+	 */
+	private final Map<T, Boolean> pendingTags = new IdentityHashMap<T, Boolean>();
 
 	/*
 	 * --------------------------------
@@ -74,6 +116,14 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * --------------------------------
 	 */
 	private int suggestionSynchroId = 0;
+	/**
+	 * The latest suggestion request which did not get suggestions yet
+	 */
+	private SuggestionRequest pendingSuggestionRequest;
+	/**
+	 * Dispatcher of suggestion requests while typing
+	 */
+	private SuggestionDispatcher suggestionDispatcher;
 	/**
 	 * Delegete for getting suggestions for given input
 	 */
@@ -82,13 +132,69 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * Presenter for suggestions for given input
 	 */
 	private SuggestionPresenter<T> suggestionPresenter;
+	/**
+	 * Maximal number of shown suggestions, <code>0</code> means no limit
+	 */
+	private int maxSuggestions = 0;
+	/**
+	 * Order of shown suggestions, when <code>null</code> order of delegate is kept
+	 */
+	private Comparator<? super T> suggestionComparator;
+	/**
+	 * Listener of performance metrics, when <code>null</code> nothing is measured
+	 */
+	private InputTagMetricsListener metricsListener;
+	/**
+	 * Time of the last input text change, measured only for {@link #metricsListener}
+	 */
+	private double inputChangedAt;
 	/**
 	 * Caret last position used to compute whether the focus of active element
 	 * should be switched to next / previous sibling
 	 */
 	private int caretLastPosition = 0;
 	private boolean allowWhiteSpaceInTag = false;
+	/**
+	 * Characters which separate tags in pasted text, space separates tags
+	 * also when {@link #allowWhiteSpaceInTag} is <code>false</code>
+	 */
+	private String pasteDelimiters = ",;\t\r\n";
 	private boolean allowDuplicates = false;
+	/**
+	 * <code>false</code> in {@link Mode#READ}
+	 */
+	private boolean editable = true;
+	private int tabIndex = 0;
+	/**
+	 * When <code>true</code>, existing suggestion elements are reused for
+	 * suggestions that are still present
+	 */
+	private boolean reconcileSuggestions = false;
+	/**
+	 * Number of suggestion rows visible at once when suggestion list is
+	 * virtualized, <code>0</code> when all suggestions are rendered
+	 */
+	private int visibleSuggestionRows = 0;
+	/**
+	 * Measured height of suggestion row, used by virtualized suggestion list
+	 */
+	private int suggestionRowHeight = 0;
+	/**
+	 * Index of focused suggestion in {@link #suggestedTags}
+	 */
+	private int focusedSuggestion = -1;
+	/**
+	 * Element of focused suggestion, <code>null</code> when it is not rendered
+	 */
+	private Element focusedSuggestionElement;
+	/**
+	 * Index of suggestion rendered as the first child of suggestion list
+	 */
+	private int renderedSuggestionsFrom = 0;
+	/**
+	 * Text for which actual suggestions were found
+	 */
+	private String suggestionText = "";
 	/**
 	 * Mode of tag input
 	 */
@@ -97,6 +203,15 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	public InputTag(List<T> tags) {
 		// init tags
 		this.tags = new ArrayList<ItemTag<T>>();
+		this.selectedKeys = new HashMap<String, Integer>();
+		// init suggestion dispatcher
+		suggestionDispatcher = new SuggestionDispatcher(new ScheduledCommand() {
+
+			@Override
+			public void execute() {
+				findSuggestions(false);
+			}
+		});
 		// init layout
 		initLayout(tags);
 		// set default mode
@@ -113,13 +228,17 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 
 	public void setWidth(int pixels) {
 		getElement().getStyle().setWidth(pixels, Unit.PX);
-		suggestionList.getParentElement().getStyle().setWidth(pixels, Unit.PX);
+		if (suggestionList != null) {
+			suggestionList.getParentElement().getStyle().setWidth(pixels, Unit.PX);
+		}
 	}
 
 	@Override
 	public void setWidth(String value) {
 		getElement().getStyle().setProperty("width", value);
-		suggestionList.getParentElement().getStyle().setProperty("width", value);
+		if (suggestionList != null) {
+			suggestionList.getParentElement().getStyle().setProperty("width", value);
+		}
 	}
 
 	private Element createTagWrapper() {
@@ -132,15 +251,18 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 
 			@Override
 			public void onBrowserEvent(Event event) {
-				inputText.focus();
+				if (editable) {
+					ensureEditingLayout();
+					inputText.focus();
+				}
 			}
 		});
-		DOM.sinkEvents(tagListWrapeer.<Element> cast(), Event.ONCLICK);
+		DOM.sinkEvents(tagListWrapeer.<Element> cast(), Event.ONCLICK | Event.ONFOCUS);
 		return tagListWrapeer;
 	}
 
 	private void handleNewTag(T tag) {
-		if (allowDuplicates || !getTags().contains(tag)) { // avoid duplicates
+		if (allowDuplicates || !isSelected(tag)) { // avoid duplicates
 			appendTag(tag);
 			resetInputText();
 			if (Mode.SELECT_BOX.equals(mode)) {
@@ -161,38 +283,113 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		// init list area
 		tagList = Document.get().createULElement();
 		tagList.setClassName("input-tag-list-tags");
+		// one listener handles events of all tags
+		DOM.setEventListener(tagList.<Element> cast(), new EventListener() {
+
+			@Override
+			public void onBrowserEvent(Event event) {
+				onTagListEvent(event);
+			}
+		});
+		DOM.sinkEvents(tagList.<Element> cast(), Event.ONKEYDOWN | Event.ONCLICK | Event.ONMOUSEOVER | Event.ONMOUSEOUT);
 
 		// init
 		tagListWrapper.appendChild(tagList);
 		component.appendChild(tagListWrapper);
 		setElement(component);
 
+		appendTags(tags);
+	}
+
+	/**
+	 * Creates input text and suggestion list with their listeners, when they
+	 * are needed for the first time. Most of instances on page are never
+	 * edited, so they contain only their tags.
+	 */
+	private void ensureEditingLayout() {
+		if (inputText != null) {
+			return;
+		}
+
 		Element e = DOM.createInputText();
 		e.getStyle().setDisplay(Display.NONE);
 		component.appendChild(e);
 
 		// insert first input text for tagging.
 		initializeInputText();
-
-		if (tags != null) {
-			for (T tagItem : tags) {
-				appendTag(tagItem);
-			}
+		if (!editable) {
+			inputText.getParentElement().removeFromParent();
 		}
-
+		inputText.setTabIndex(tabIndex);
+		updateLazyTabStop();
 
 		// init suggestion list
 		suggestionList = Document.get().createULElement();
 		suggestionList.setClassName("tags-suggestion-list");
 		suggestionList.setId("suggestion-list");
+		// one listener handles events of all suggestions
+		DOM.setEventListener(suggestionList.<Element> cast(), new EventListener() {
+
+			@Override
+			public void onBrowserEvent(Event event) {
+				onSuggestionListEvent(event);
+			}
+		});
+		DOM.sinkEvents(suggestionList.<Element> cast(), Event.ONMOUSEOVER | Event.ONCLICK);
 
 		// suggestion list wrapper
 		Element suggestionListWrapper = DOM.createDiv();
 		suggestionListWrapper.setClassName("tags-suggestion-wrapper");
 		suggestionListWrapper.appendChild(suggestionList);
 		suggestionListWrapper.setId("suggestion-wrapper");
+		DOM.setEventListener(suggestionListWrapper.<Element> cast(), new EventListener() {
+
+			@Override
+			public void onBrowserEvent(Event event) {
+				if (event.getTypeInt() == Event.ONSCROLL) {
+					if (isVirtualSuggestionList() && !suggestedTags.isEmpty()) {
+						renderSuggestionWindow();
+					}
+					// dragging scrollbar of wrapper should not steal focus of input text
+				} else if (event.getTypeInt() == Event.ONMOUSEDOWN
+						&& suggestionList.getParentElement().equals(event.getEventTarget())) {
+					event.preventDefault();
+				}
+			}
+		});
+		DOM.sinkEvents(suggestionListWrapper.<Element> cast(), Event.ONSCROLL | Event.ONMOUSEDOWN);
 
 		component.appendChild(suggestionListWrapper);
+
+		// apply settings made before
+		String width = component.getStyle().getWidth();
+		if (width != null && !width.isEmpty()) {
+			suggestionListWrapper.getStyle().setProperty("width", width);
+		}
+		updateVirtualSuggestionList();
+	}
+
+	/**
+	 * Until input text is created, wrapper of tag list takes its place in tab
+	 * order of editable component and creates it on focus.
+	 */
+	private void updateLazyTabStop() {
+		Element tagListWrapper = tagList.getParentElement();
+		if (inputText == null && editable) {
+			tagListWrapper.setTabIndex(tabIndex);
+		} else {
+			tagListWrapper.removeAttribute("tabIndex");
+		}
+	}
+
+	/**
+	 * @return element before which tags are inserted, <code>null</code> when they are appended at the end
+	 */
+	private Element getTagsEnd() {
+		if (inputText != null && tagList.equals(inputText.getParentElement().getParentElement())) {
+			return inputText.getParentElement();
+		}
+		return null;
 	}
 
 	protected LIElement createTagLIElement(final EventListener listener, int eventBits) {
@@ -220,31 +417,14 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	}
 
 	/**
-	 * Appends tag to InputTag component. Tag is placed right after last tag.
-	 *
-	 * @param tag representation
-	 * @return list item
+	 * Creates list item of tag. Item has no listeners, its events are handled
+	 * by {@link #onTagListEvent(Event)}.
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	public void appendTag(T tag) {
-		// item
-		final Element item = createTagLIElement(new EventListener() {
-
-			@Override
-			public void onBrowserEvent(Event event) {
-
-				if (event.getTypeInt() == Event.ONKEYDOWN &&
-						(event.getKeyCode() == KeyCodes.KEY_BACKSPACE || event.getKeyCode() == KeyCodes.KEY_DELETE)) {
-					removeTag(event.getEventTarget().<Element> cast());
-				} else if (event.getTypeInt() == Event.ONKEYDOWN && event.getKeyCode() == KeyCodes.KEY_LEFT) {
-					shiftFocusLeft(event.getEventTarget().<Element> cast());
-				} else if (event.getTypeInt() == Event.ONKEYDOWN && event.getKeyCode() == KeyCodes.KEY_RIGHT) {
-					shiftFocusRight(event.getEventTarget().<Element> cast());
-				}
-			}
-		}, Event.ONKEYDOWN);
-		item.addClassName("input-tag-list-box");
-		item.addClassName("input-tag-list-item-deletable");
+	private Element createTagItemElement(T tag) {
+		// create list item
+		LIElement item = Document.get().createLIElement();
+		item.setClassName("input-tag-list-item input-tag-list-box input-tag-list-item-deletable");
+		item.setTabIndex(0);
 
 		// create tag text
 		SpanElement tagSpan = Document.get().createSpanElement();
@@ -254,21 +434,107 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		// delete tag
 		Element deleteAnchor = Document.get().createAnchorElement();
 		deleteAnchor.setClassName("input-tag-list-tag-delete");
-		DOM.setEventListener(deleteAnchor.<Element> cast(), new EventListener() {
+		item.appendChild(deleteAnchor);
+		return item;
+	}
 
-			@Override
-			public void onBrowserEvent(Event event) {
-				if (event.getTypeInt() == Event.ONCLICK) {
+	/**
+	 * Handles events of all tag list items.
+	 */
+	private void onTagListEvent(Event event) {
+		Element item = getListItem(tagList, event.getEventTarget());
+		// events of input text item are handled by its own listener
+		if (item == null || (inputText != null && item.equals(inputText.getParentElement()))) {
+			return;
+		}
+
+		switch (event.getTypeInt()) {
+			case Event.ONKEYDOWN:
+				if (event.getKeyCode() == KeyCodes.KEY_BACKSPACE || event.getKeyCode() == KeyCodes.KEY_DELETE) {
 					removeTag(item);
+				} else if (event.getKeyCode() == KeyCodes.KEY_LEFT) {
+					shiftFocusLeft(item);
+				} else if (event.getKeyCode() == KeyCodes.KEY_RIGHT) {
+					shiftFocusRight(item);
 				}
-			}
-		});
-		DOM.sinkEvents(deleteAnchor.<Element> cast(), Event.ONCLICK);
-		item.appendChild(deleteAnchor);
+				break;
+			case Event.ONCLICK:
+				Element target = event.getEventTarget().cast();
+				if (target.hasClassName("input-tag-list-tag-delete")) {
+					removeTag(item);
+				}
+				break;
+			case Event.ONMOUSEOVER:
+				item.addClassName("input-tag-list-item-hover");
+				break;
+			case Event.ONMOUSEOUT:
+				// ignore moves between children of item
+				EventTarget related = event.getRelatedEventTarget();
+				if (related == null || !Element.is(related) || !item.isOrHasChild(related.<Element> cast())) {
+					item.removeClassName("input-tag-list-item-hover");
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Appends tag to InputTag component. Tag is placed right after last tag.
+	 *
+	 * @param tag representation
+	 * @return list item
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void appendTag(T tag) {
+		// item
+		Element item = createTagItemElement(tag);
 		// insert into DOM
-		tagList.insertBefore(item, inputText.getParentElement());
+		tagList.insertBefore(item, getTagsEnd());
 		// insert into inner list
 		getInputTags().add(new ItemTag(tag, item));
+		addSelectedKey(tag);
+		tagsChanged(tag, true);
+	}
+
+	/**
+	 * Appends tags to InputTag component. Tags are placed right after last tag.
+	 * All list items are created off-document and inserted into DOM at once.
+	 * When duplicates are not allowed, tags that are already selected or
+	 * repeated in collection are skipped.
+	 *
+	 * @param tags tags to append
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void appendTags(Collection<T> tags) {
+		if (tags == null || tags.isEmpty()) {
+			return;
+		}
+
+		Node fragment = createDocumentFragment();
+		for (T tag : tags) {
+			if (!allowDuplicates && isSelected(tag)) {
+				continue;
+			}
+			Element item = createTagItemElement(tag);
+			fragment.appendChild(item);
+			// insert into inner list
+			getInputTags().add(new ItemTag(tag, item));
+			addSelectedKey(tag);
+			tagsChanged(tag, true);
+		}
+		// insert into DOM
+		tagList.insertBefore(fragment, getTagsEnd());
+	}
+
+	/**
+	 * Replaces all tags of InputTag component by given tags. Text in input
+	 * text is kept.
+	 *
+	 * @param tags new tags
+	 * @see #appendTags(Collection)
+	 */
+	public void setTags(Collection<T> tags) {
+		removeAllTags();
+		appendTags(tags);
 	}
 
 	private void removeTag(Element listItem) {
@@ -286,16 +552,22 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 			if (t == null) {
 				throw new NullPointerException("List item element that has to be removed was not found!");
 			}
-			getInputTags().remove(t);
-
 			// make next sibling active
 			shiftFocusRight(listItem);
 
-			// remove tag from DOM
-			listItem.removeFromParent();
+			removeItemTag(t);
 		}
 	}
 
+	private void removeItemTag(ItemTag<T> t) {
+		getInputTags().remove(t);
+		removeSelectedKey(t.getTag());
+		tagsChanged(t.getTag(), false);
+
+		// remove tag from DOM
+		t.getListItem().removeFromParent();
+	}
+
 	private void handleNewTag() {
 		String value = inputText.getValue().trim();
 		if (value.length() > 0) {
@@ -312,13 +584,312 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 					return;
 				}
 				tag = createNewTag(value);
+				if (asyncTagValidator != null) {
+					int from = getInputTags().size();
+					pendingTags.put(tag, Boolean.TRUE);
+					handleNewTag(tag);
+					validatePendingTags(from, Collections.singletonList(tag));
+					return;
+				}
 			}
 			handleNewTag(tag);
 		}
 	}
 
+	/**
+	 * Marks free tags appended from given position as pending and validates
+	 * them by {@link #asyncTagValidator} in one call. Confirmed tags stop
+	 * being pending, tags without positive verdict are removed. When
+	 * validation failed, tags are kept as unverified, see
+	 * {@link #revalidateTags()}. Free tags has to be added to
+	 * {@link #pendingTags} before they are appended.
+	 *
+	 * @param from number of tags before tags were appended
+	 * @param freeTags appended tags which were not suggested
+	 */
+	private void validatePendingTags(int from, List<T> freeTags) {
+		Map<T, Boolean> free = new IdentityHashMap<T, Boolean>();
+		for (T t : freeTags) {
+			free.put(t, Boolean.TRUE);
+		}
+		List<ItemTag<T>> pending = new ArrayList<ItemTag<T>>();
+		for (int i = from; i < getInputTags().size(); i++) {
+			ItemTag<T> itemTag = getInputTags().get(i);
+			if (free.remove(itemTag.getTag()) != null) {
+				pending.add(itemTag);
+			}
+		}
+		// skipped duplicates were not appended
+		for (T t : free.keySet()) {
+			pendingTags.remove(t);
+		}
+		validateItemTags(pending);
+	}
+
+	/**
+	 * Pending tag is shown and returned by {@link #getTags()}, but it is not
+	 * reported by {@link TagsChangedEvent} until {@link AsyncTagValidator}
+	 * confirms it.
+	 *
+	 * @param tag tag of this component
+	 * @return <code>true</code> when tag waits for verdict or its validation failed
+	 */
+	public boolean isPending(T tag) {
+		return pendingTags.containsKey(tag);
+	}
+
+	/**
+	 * Validates again tags which validation failed, e.g. because server was
+	 * not available.
+	 */
+	public void revalidateTags() {
+		if (asyncTagValidator == null) {
+			return;
+		}
+		List<ItemTag<T>> unverified = new ArrayList<ItemTag<T>>();
+		for (ItemTag<T> itemTag : getInputTags()) {
+			if (itemTag.getListItem().hasClassName("input-tag-list-item-unverified")) {
+				unverified.add(itemTag);
+			}
+		}
+		validateItemTags(unverified);
+	}
+
+	private void validateItemTags(final List<ItemTag<T>> pending) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<String> values = new ArrayList<String>();
+		for (ItemTag<T> itemTag : pending) {
+			itemTag.getListItem().removeClassName("input-tag-list-item-unverified");
+			itemTag.getListItem().addClassName("input-tag-list-item-pending");
+			values.add(itemTag.getTag().getTag());
+		}
+
+		asyncTagValidator.validate(values, new AsyncCallback<Map<String, Boolean>>() {
+
+			@Override
+			public void onSuccess(Map<String, Boolean> verdicts) {
+				for (ItemTag<T> itemTag : pending) {
+					// skip tags removed meanwhile
+					if (itemTag.getListItem().getParentElement() == null) {
+						continue;
+					}
+					if (verdicts != null && Boolean.TRUE.equals(verdicts.get(itemTag.getTag().getTag()))) {
+						itemTag.getListItem().removeClassName("input-tag-list-item-pending");
+						pendingTags.remove(itemTag.getTag());
+						tagsChanged(itemTag.getTag(), true);
+					} else {
+						removeItemTag(itemTag);
+					}
+				}
+			}
+
+			@Override
+			public void onFailure(Throwable caught) {
+				// verdict is not known, tags are kept
+				for (ItemTag<T> itemTag : pending) {
+					itemTag.getListItem().removeClassName("input-tag-list-item-pending");
+					itemTag.getListItem().addClassName("input-tag-list-item-unverified");
+				}
+			}
+		});
+	}
+
 	protected abstract T createNewTag(String value);
 
+	/*
+	 * ----------------------------------------------------------------------------
+	 * ---- P A S T E ----
+	 * ----------------------------------------------------------------------------
+	 */
+	private void onPaste(Event event) {
+		String pasted = getPastedText(event);
+		if (pasted != null) {
+			// single tag is pasted into input text as usual
+			if (hasPasteDelimiter(pasted)) {
+				event.preventDefault();
+				String value = inputText.getValue();
+				int start = Math.min(getCursorPos(inputText), value.length());
+				int end = Math.max(start, Math.min(getSelectionEnd(inputText), value.length()));
+				handlePastedText(value.substring(0, start) + pasted + value.substring(end));
+			}
+		} else {
+			// clipboard is not accessible, pasted text is processed when it is in input text
+			Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+				@Override
+				public void execute() {
+					if (hasPasteDelimiter(inputText.getValue())) {
+						handlePastedText(inputText.getValue());
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Splits pasted text into tags and appends all of them at once. Tokens
+	 * are deduplicated before they are looked up in suggestions and validated,
+	 * tags which are not valid are skipped.
+	 *
+	 * @param text pasted text together with text of input
+	 */
+	private void handlePastedText(String text) {
+		List<String> tokens = tokenizePastedText(text);
+		resetInputText();
+
+		// suggested tags by key
+		Map<String, T> suggested = new HashMap<String, T>();
+		for (T t : suggestedTags) {
+			if (!suggested.containsKey(t.getKey())) {
+				suggested.put(t.getKey(), t);
+			}
+		}
+
+		// tokens are resolved to known tags, free tags are validated in one batch
+		Map<String, T> resolved = new HashMap<String, T>();
+		List<String> values = new ArrayList<String>();
+		for (String token : tokens) {
+			T tag = resolvePastedToken(token, suggested);
+			if (tag != null) {
+				resolved.put(token, tag);
+			} else {
+				values.add(token);
+			}
+		}
+		Set<String> invalid = mode == Mode.SELECT_BOX ? new HashSet<String>(values) : findInvalidTags(values);
+
+		List<T> newTags = new ArrayList<T>(tokens.size());
+		List<T> freeTags = new ArrayList<T>();
+		StringBuilder unmatched = new StringBuilder();
+		for (String token : tokens) {
+			T tag = resolved.get(token);
+			if (tag != null) {
+				newTags.add(tag);
+			} else if (!invalid.contains(token)) {
+				tag = createNewTag(token);
+				newTags.add(tag);
+				freeTags.add(tag);
+			} else {
+				// unknown and invalid tokens stay in input text, so they are not lost
+				if (unmatched.length() > 0) {
+					unmatched.append(pasteDelimiters.length() > 0 ? pasteDelimiters.charAt(0) + " " : " ");
+				}
+				unmatched.append(token);
+			}
+		}
+		int from = getInputTags().size();
+		if (asyncTagValidator != null) {
+			for (T t : freeTags) {
+				pendingTags.put(t, Boolean.TRUE);
+			}
+		}
+		appendTags(newTags);
+		if (asyncTagValidator != null) {
+			validatePendingTags(from, freeTags);
+		}
+		if (unmatched.length() > 0) {
+			inputText.setValue(unmatched.toString());
+			updateInputTextWidth();
+		}
+
+		if (Mode.SELECT_BOX.equals(mode)) {
+			inputTextChanged(true);
+		} else {
+			hideSuggestions();
+		}
+	}
+
+	/**
+	 * Finds known tag for pasted token, in actual suggestions or in shared
+	 * dictionary of suggestion delegate.
+	 *
+	 * @return tag or <code>null</code> when token is not known
+	 */
+	private T resolvePastedToken(String token, Map<String, T> suggested) {
+		T tag = suggested.get(Tag.toKey(token));
+		if (tag == null && suggestionDelegate instanceof SharedTagDictionary) {
+			tag = ((SharedTagDictionary<T>) suggestionDelegate).get(token);
+		}
+		return tag;
+	}
+
+	/**
+	 * Splits text by {@link #pasteDelimiters} in one pass. When duplicates are
+	 * not allowed, repeated and already selected tokens are skipped.
+	 *
+	 * @return trimmed non empty tokens
+	 */
+	private List<String> tokenizePastedText(String text) {
+		List<String> tokens = new ArrayList<String>();
+		Set<String> keys = new HashSet<String>();
+		int start = 0;
+		for (int i = 0; i <= text.length(); i++) {
+			if (i == text.length() || isPasteDelimiter(text.charAt(i))) {
+				String token = text.substring(start, i).trim();
+				start = i + 1;
+				if (token.length() == 0) {
+					continue;
+				}
+				String key = Tag.toKey(token);
+				if (allowDuplicates || (keys.add(key) && !selectedKeys.containsKey(key))) {
+					tokens.add(token);
+				}
+			}
+		}
+		return tokens;
+	}
+
+	private boolean isPasteDelimiter(char c) {
+		return pasteDelimiters.indexOf(c) >= 0 || (c == ' ' && !isAllowWhiteSpaceInTag());
+	}
+
+	private boolean hasPasteDelimiter(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (isPasteDelimiter(text.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return values which are not valid according to {@link #tagValidator}
+	 */
+	private Set<String> findInvalidTags(List<String> values) {
+		Set<String> invalid = new HashSet<String>();
+		if (tagValidator != null) {
+			for (String value : values) {
+				if (!tagValidator.isValid(value)) {
+					invalid.add(value);
+				}
+			}
+		}
+		return invalid;
+	}
+
+	/**
+	 * @return pasted plain text or <code>null</code> when browser does not provide it
+	 */
+	private static native String getPastedText(Event event) /*-{
+		if (event.clipboardData && event.clipboardData.getData) {
+			return event.clipboardData.getData('text/plain');
+		}
+		if ($wnd.clipboardData && $wnd.clipboardData.getData) {
+			return $wnd.clipboardData.getData('Text');
+		}
+		return null;
+	}-*/;
+
+	private static native int getSelectionEnd(Element elem) /*-{
+		try {
+			return elem.selectionEnd;
+		} catch (e) {
+			return 0;
+		}
+	}-*/;
+
 	/*
 	 * ----------------------------------------------------------------------------
 	 * ---- I N P U T T E X T ----
@@ -326,79 +897,135 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 */
 	private void inputTextChanged(boolean force) {
 
-		final String text = inputText.getValue();
-
 		// update input text width
-		widthSpanTester.setInnerText(text);
-		inputText.getStyle().setWidth(widthSpanTester.getOffsetWidth() + 20, Unit.PX);
+		if (metricsListener != null) {
+			inputChangedAt = Duration.currentTimeMillis();
+			updateInputTextWidth();
+			metricsListener.onInputWidthMeasured(Duration.currentTimeMillis() - inputChangedAt);
+		} else {
+			updateInputTextWidth();
+		}
+
+		// forced requests are never delayed
+		if (force) {
+			suggestionDispatcher.cancel();
+			findSuggestions(true);
+		} else {
+			suggestionDispatcher.request();
+		}
+	}
+
+	private void findSuggestions(boolean force) {
+
+		final String text = inputText.getValue();
 
 		// try suggestion oraculum for tags
 		if (getSuggestionDelegate() != null && (force ? true : text.length() > 0)) {
-			final int newSynchroId = ++suggestionSynchroId;
+			// previous request is superseded
+			cancelSuggestionRequest();
+			// selected tags are filtered out of suggestions, so delegate should find more of them
+			int limitHint = maxSuggestions;
+			if (maxSuggestions > 0 && !isAllowDuplicates()) {
+				limitHint += getInputTags().size();
+			}
+			SuggestionRequest request = new SuggestionRequest(++suggestionSynchroId, text, limitHint);
+			pendingSuggestionRequest = request;
 
-			// hide and clear suggestions
-			hideSuggestions();
+			// hide and clear suggestions, reconciled list stays until new suggestions are found
+			if (!reconcileSuggestions) {
+				hideSuggestions();
 
-			// clear suggestions
-			suggestedTags.clear();
-			// clear suggestions element
-			while (suggestionList.hasChildNodes()) {
-				suggestionList.removeChild(suggestionList.getFirstChild());
+				// clear suggestions
+				suggestedTags.clear();
+				setFocusedSuggestion(-1);
+				// clear suggestions element
+				while (suggestionList.hasChildNodes()) {
+					suggestionList.removeChild(suggestionList.getFirstChild());
+				}
 			}
 
-			getSuggestionDelegate().findSuggestions(text, new SuggestionCallback.Callback<T>() {
+			if (metricsListener != null) {
+				request.dispatchedAt = Duration.currentTimeMillis();
+				metricsListener.onSuggestionDispatched(text, request.dispatchedAt - inputChangedAt);
+			}
+			getSuggestionDelegate().findSuggestions(text, request);
+		}
+	}
 
-				@Override
-				public int getId() {
-					return newSynchroId;
-				}
+	/**
+	 * Cancels pending suggestion request, so its delegate can abort it.
+	 */
+	private void cancelSuggestionRequest() {
+		if (pendingSuggestionRequest != null) {
+			SuggestionRequest request = pendingSuggestionRequest;
+			pendingSuggestionRequest = null;
+			request.cancel();
+		}
+	}
 
-				@Override
-				public boolean found(List<T> suggestions) {
-					if (newSynchroId != suggestionSynchroId) {
-						return false;
-					}
+	/**
+	 * Keeps only {@link #maxSuggestions} suggestions ordered by
+	 * {@link #suggestionComparator}. The best suggestions are selected by
+	 * bounded heap, so not all suggestions are sorted.
+	 */
+	private List<T> limitSuggestions(List<T> suggestions) {
+		final Comparator<? super T> comparator = suggestionComparator;
+		if (comparator == null) {
+			if (maxSuggestions > 0 && suggestions.size() > maxSuggestions) {
+				return new ArrayList<T>(suggestions.subList(0, maxSuggestions));
+			}
+			return suggestions;
+		}
 
+		if (maxSuggestions <= 0 || suggestions.size() <= maxSuggestions) {
+			List<T> sorted = new ArrayList<T>(suggestions);
+			Collections.sort(sorted, comparator);
+			return sorted;
+		}
 
-					// we will filter out already suggested tags
-					if (!isAllowDuplicates()) {
-						removeDuplicates(suggestions);
-					}
-					suggestedTags = suggestions;
-					if (suggestedTags.size() > 0) {
-						suggestionList.getStyle().setDisplay(Display.BLOCK);
-						// create suggestions list items
-						for (int i = 0; i < suggestedTags.size(); i++) {
-							final T tag = suggestedTags.get(i);
-							LIElement suggestionElement = createSuggestionElement(tag);
-							getSuggestionPresenter().createSuggestion(suggestionElement, tag, text);
-							suggestionList.appendChild(suggestionElement);
-							// if select mode, then we select the first
-							if (i == 0 && getMode().equals(Mode.SELECT_BOX)) {
-								suggestionElement.addClassName("tags-suggestion-list-suggestion-focus");
-							}
-						}
-					}
-					return true;
-				}
+		// heap of the best suggestions, the worst of them is on top
+		PriorityQueue<T> heap = new PriorityQueue<T>(maxSuggestions, new Comparator<T>() {
 
-				private void removeDuplicates(List<T> suggestions) {
-					for (T alreadyChosen : getTags()) {
-						T matched = null;
-						for (T t : suggestions) {
-							if (alreadyChosen.equals(t)) {
-								matched = t;
-								break;
-							}
-						}
-						if (matched != null) {
-							suggestions.remove(matched);
-						}
-					}
-				}
-			});
+			@Override
+			public int compare(T o1, T o2) {
+				return comparator.compare(o2, o1);
+			}
+		});
+		for (T t : suggestions) {
+			if (heap.size() < maxSuggestions) {
+				heap.add(t);
+			} else if (comparator.compare(t, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(t);
+			}
+		}
+		List<T> best = new ArrayList<T>(heap);
+		Collections.sort(best, comparator);
+		return best;
+	}
 
+	private List<T> removeDuplicates(List<T> suggestions) {
+		if (selectedKeys.isEmpty()) {
+			return suggestions;
+		}
+		List<T> filtered = new ArrayList<T>(suggestions.size());
+		for (T t : suggestions) {
+			if (!isSelected(t)) {
+				filtered.add(t);
+			}
 		}
+		return filtered;
+	}
+
+	private void updateInputTextWidth() {
+		String text = inputText.getValue();
+		int width = textMeasurer != null ? textMeasurer.measureWidth(inputText, text) : -1;
+		if (width < 0) {
+			// fallback reads layout of page
+			widthSpanTester.setInnerText(text);
+			width = widthSpanTester.getOffsetWidth();
+		}
+		inputText.getStyle().setWidth(width + 20, Unit.PX);
 	}
 
 	/**
@@ -419,17 +1046,10 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 				if (event.getTypeInt() == Event.ONKEYPRESS) {
 					// enter is working only when no suggestion is selected
 					if (event.getKeyCode() == KeyCodes.KEY_ENTER) {
-						Node node = null;
-						int i = 0;
-						for (; i < suggestionList.getChildCount(); i++) {
-							if (hasNodeStyleClass(suggestionList.getChild(i), "tags-suggestion-list-suggestion-focus")) {
-								node = suggestionList.getChild(i);
-								break;
-							}
-						}
-
-						if (node != null) {
-							handleNewTag(suggestedTags.get(i));
+						// delayed request is dispatched now, so suggestions of actual text are used
+						suggestionDispatcher.flush();
+						if (isSuggestionTextCurrent() && focusedSuggestion >= 0 && focusedSuggestion < suggestedTags.size()) {
+							handleNewTag(suggestedTags.get(focusedSuggestion));
 						} else {
 							handleNewTag();
 						}
@@ -463,6 +1083,7 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 					//
 				} else if (event.getTypeInt() == Event.ONBLUR) {
 					inputText.getParentElement().removeClassName("input-tag-list-tag-focus");
+					suggestionDispatcher.cancel();
 
 					// check if new focus is outside of our widget element, then hide suggestions
 					Scheduler.get().scheduleDeferred(new ScheduledCommand() {
@@ -472,6 +1093,7 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 							Element focusedElement = getFocusedElement();
 
 							if (!getElement().isOrHasChild(focusedElement)) {
+								cancelSuggestionRequest();
 								hideSuggestions();
 							}
 						}
@@ -492,42 +1114,19 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 					}
 
 					if (event.getKeyCode() == KeyCodes.KEY_DOWN || event.getKeyCode() == KeyCodes.KEY_UP) {
-						// we'll try to find if there is some suggestion
-						if (suggestionList.getChildCount() > 0) {
-							boolean found = false;
-							for (int i = 0; i < suggestionList.getChildCount(); i++) {
-								Node node = suggestionList.getChild(i);
-								if (hasNodeStyleClass(node, "tags-suggestion-list-suggestion-focus")) {
-									if (event.getKeyCode() == KeyCodes.KEY_DOWN) {
-										if (node.getNextSibling() != null) {
-											node.getNextSibling().<Element> cast().addClassName(
-													"tags-suggestion-list-suggestion-focus");
-											node.<Element> cast().removeClassName(
-													"tags-suggestion-list-suggestion-focus");
-										}
-									} else {
-										if (node.getPreviousSibling() != null) {
-											node.getPreviousSibling().<Element> cast().addClassName(
-													"tags-suggestion-list-suggestion-focus");
-											node.<Element> cast().removeClassName(
-													"tags-suggestion-list-suggestion-focus");
-										}
-									}
-									found = true;
-									break;
-								}
-							}
-							// we mark the first one
-							if (!found && event.getKeyCode() == KeyCodes.KEY_DOWN) {
-								suggestionList.getChild(0).<Element> cast().addClassName(
-										"tags-suggestion-list-suggestion-focus");
-							}
-						}
+						moveSuggestionFocus(event.getKeyCode() == KeyCodes.KEY_DOWN);
 					}
+
+					//
+					// Handles pasted text with more tags
+					//
+				} else if (event.getTypeInt() == Event.ONPASTE) {
+					onPaste(event);
 				}
 			}
 		});
-		DOM.sinkEvents(inputText.<Element> cast(), Event.ONKEYPRESS | Event.ONKEYDOWN | Event.ONKEYUP | Event.FOCUSEVENTS);
+		DOM.sinkEvents(inputText.<Element> cast(), Event.ONKEYPRESS | Event.ONKEYDOWN | Event.ONKEYUP | Event.FOCUSEVENTS
+				| Event.ONPASTE);
 		widthSpanTester = Document.get().createSpanElement();
 		widthSpanTester.setAttribute("style", "float: left; left: -1000px; position: absolute; display: inline-block;");
 
@@ -542,81 +1141,327 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 						inputTextChanged(true);
 					}
 				}
-
+
+			}
+		}, Event.ONFOCUS);
+
+		item.addClassName("input-tag-list-tag-editable");
+		item.appendChild(inputText);
+
+		item.appendChild(widthSpanTester);
+
+		// append new list item into list
+		tagList.appendChild(item);
+	}
+
+	private static native Node createDocumentFragment() /*-{
+		return $doc.createDocumentFragment();
+	}-*/;
+
+	protected native Element getFocusedElement(Element element) /*-{
+		return element.ownerDocument.activeElement;
+	}-*/;
+
+	private Element getFocusedElement() {
+		return getFocusedElement(RootPanel.getBodyElement());
+	}
+
+	private void resetInputText() {
+		// reset input text
+		inputText.setValue("");
+		inputText.getStyle().setWidth(50, Unit.PX);
+	}
+
+	/*
+	 * ----------------------------------------------------------------------------
+	 * ---- S U G G E S T I O N S ----
+	 * ----------------------------------------------------------------------------
+	 */
+	private static int l = 0;
+	/**
+	 * Element property with index of suggested tag in {@link #suggestedTags}
+	 */
+	private static final String SUGGESTION_INDEX = "suggestionIndex";
+	/**
+	 * Element property with key of suggested tag
+	 */
+	private static final String SUGGESTION_KEY = "suggestionKey";
+	/**
+	 * Element property with text for which suggestion content was created
+	 */
+	private static final String SUGGESTION_TEXT = "suggestionText";
+	/**
+	 * Number of suggestions rendered above and below visible rows of
+	 * virtualized suggestion list
+	 */
+	private static final int SUGGESTION_OVERSCAN = 5;
+
+	/**
+	 * Creates suggestion element with content created by suggestion presenter.
+	 */
+	private LIElement createSuggestionElement(T tag, int index, String text) {
+		LIElement suggestionElement = createSuggestionElement(tag);
+		suggestionElement.setPropertyInt(SUGGESTION_INDEX, index);
+		suggestionElement.setPropertyString(SUGGESTION_KEY, getSuggestionKey(tag));
+		suggestionElement.setPropertyString(SUGGESTION_TEXT, text);
+		getSuggestionPresenter().createSuggestion(suggestionElement, tag, text);
+		return suggestionElement;
+	}
+
+	/**
+	 * Shows actual {@link #suggestedTags} in suggestion list.
+	 */
+	private void renderSuggestions(String text) {
+		suggestionText = text;
+		// if select mode, then we select the first
+		int firstFocused = getMode().equals(Mode.SELECT_BOX) && !suggestedTags.isEmpty() ? 0 : -1;
+		if (isVirtualSuggestionList()) {
+			focusedSuggestion = firstFocused;
+			suggestionList.getParentElement().setScrollTop(0);
+			renderSuggestionWindow();
+		} else if (reconcileSuggestions) {
+			Element focused = focusedSuggestionElement;
+			List<LIElement> elements = reconcileSuggestionElements(text, 0, suggestedTags.size());
+			// focused suggestion stays focused, when it is not stale
+			if (focused != null && suggestionList.equals(focused.getParentElement())) {
+				setFocusedSuggestion(focused.getPropertyInt(SUGGESTION_INDEX));
+			} else {
+				setFocusedSuggestion(firstFocused);
+			}
+			if (elements.isEmpty()) {
+				hideSuggestions();
+			} else {
+				suggestionList.getStyle().setDisplay(Display.BLOCK);
+			}
+		} else if (suggestedTags.size() > 0) {
+			suggestionList.getStyle().setDisplay(Display.BLOCK);
+			// create suggestions list items
+			for (int i = 0; i < suggestedTags.size(); i++) {
+				final T tag = suggestedTags.get(i);
+				LIElement suggestionElement = createSuggestionElement(tag, i, text);
+				suggestionList.appendChild(suggestionElement);
+			}
+			setFocusedSuggestion(firstFocused);
+		}
+	}
+
+	/**
+	 * Moves highlight of focused suggestion to suggestion with given index.
+	 *
+	 * @param index index of suggestion in {@link #suggestedTags}, <code>-1</code> when no suggestion is focused
+	 */
+	private void setFocusedSuggestion(int index) {
+		if (focusedSuggestionElement != null) {
+			focusedSuggestionElement.removeClassName("tags-suggestion-list-suggestion-focus");
+			focusedSuggestionElement = null;
+		}
+		focusedSuggestion = index;
+
+		int position = index - renderedSuggestionsFrom;
+		if (index >= 0 && position >= 0 && position < suggestionList.getChildCount()) {
+			focusedSuggestionElement = suggestionList.getChild(position).cast();
+			focusedSuggestionElement.addClassName("tags-suggestion-list-suggestion-focus");
+		}
+	}
+
+	/**
+	 * Moves focus to next or previous suggestion. Virtualized suggestion list
+	 * is scrolled to show focused suggestion. Nothing is done while
+	 * suggestions are hidden, they may be suggestions of previous text.
+	 */
+	private void moveSuggestionFocus(boolean down) {
+		if (!isSuggestionListShown()) {
+			return;
+		}
+		int index;
+		if (focusedSuggestion < 0) {
+			// we mark the first one
+			index = down ? 0 : -1;
+		} else {
+			index = focusedSuggestion + (down ? 1 : -1);
+		}
+		if (index < 0 || index >= suggestedTags.size()) {
+			return;
+		}
+		setFocusedSuggestion(index);
+
+		if (isVirtualSuggestionList()) {
+			Element wrapper = suggestionList.getParentElement();
+			int top = index * suggestionRowHeight;
+			if (top < wrapper.getScrollTop()) {
+				wrapper.setScrollTop(top);
+			} else if (top + suggestionRowHeight > wrapper.getScrollTop() + wrapper.getClientHeight()) {
+				wrapper.setScrollTop(top + suggestionRowHeight - wrapper.getClientHeight());
+			}
+			renderSuggestionWindow();
+		}
+	}
+
+	/**
+	 * Renders only suggestions which are visible in scrolled suggestion
+	 * wrapper plus few suggestions around. Space of other suggestions is
+	 * replaced by padding of suggestion list.
+	 */
+	private void renderSuggestionWindow() {
+		Element wrapper = suggestionList.getParentElement();
+		int size = suggestedTags.size();
+		if (size == 0) {
+			suggestionList.removeAllChildren();
+			setFocusedSuggestion(-1);
+			hideSuggestions();
+			return;
+		}
+		suggestionList.getStyle().setDisplay(Display.BLOCK);
+
+		int from = 0;
+		if (suggestionRowHeight > 0) {
+			from = Math.max(0, wrapper.getScrollTop() / suggestionRowHeight - SUGGESTION_OVERSCAN);
+		}
+		int to = Math.min(size, from + visibleSuggestionRows + 2 * SUGGESTION_OVERSCAN);
+		List<LIElement> elements = reconcileSuggestionElements(suggestionText, from, to);
+
+		// row height is measured when rows are displayed for the first time
+		if (suggestionRowHeight == 0) {
+			suggestionRowHeight = elements.get(0).getOffsetHeight();
+			if (suggestionRowHeight > 0) {
+				wrapper.getStyle().setPropertyPx("maxHeight", visibleSuggestionRows * suggestionRowHeight);
+			}
+		}
+		suggestionList.getStyle().setPaddingTop(from * suggestionRowHeight, Unit.PX);
+		suggestionList.getStyle().setPaddingBottom((size - to) * suggestionRowHeight, Unit.PX);
+
+		renderedSuggestionsFrom = from;
+		setFocusedSuggestion(focusedSuggestion);
+	}
+
+	private boolean isVirtualSuggestionList() {
+		return visibleSuggestionRows > 0;
+	}
+
+	/**
+	 * Updates suggestion list elements to show suggestions from
+	 * {@link #suggestedTags} with index between <code>from</code> (inclusive)
+	 * and <code>to</code> (exclusive). Elements of suggestions that are still
+	 * present are kept (content is recreated only when text changed), elements
+	 * of stale suggestions are removed and only new suggestions get new
+	 * elements.
+	 *
+	 * @return elements of suggestions in order
+	 */
+	private List<LIElement> reconcileSuggestionElements(String text, int from, int to) {
+		// index existing elements by suggestion key
+		Map<String, LIElement> existing = new HashMap<String, LIElement>();
+		Node child = suggestionList.getFirstChild();
+		while (child != null) {
+			LIElement e = child.cast();
+			child = child.getNextSibling();
+			String key = e.getPropertyString(SUGGESTION_KEY);
+			if (existing.containsKey(key)) {
+				e.removeFromParent();
+				continue;
+			}
+			existing.put(key, e);
+		}
+
+		// reuse or create elements for actual suggestions
+		List<LIElement> elements = new ArrayList<LIElement>(to - from);
+		for (int i = from; i < to; i++) {
+			T tag = suggestedTags.get(i);
+			LIElement e = existing.remove(getSuggestionKey(tag));
+			if (e == null) {
+				e = createSuggestionElement(tag, i, text);
+			} else {
+				e.setPropertyInt(SUGGESTION_INDEX, i);
+				if (!text.equals(e.getPropertyString(SUGGESTION_TEXT))) {
+					e.removeAllChildren();
+					e.setPropertyString(SUGGESTION_TEXT, text);
+					getSuggestionPresenter().createSuggestion(e, tag, text);
+				}
 			}
-		}, Event.ONFOCUS);
-
-		item.addClassName("input-tag-list-tag-editable");
-		item.appendChild(inputText);
-
-		item.appendChild(widthSpanTester);
-
-		// append new list item into list
-		tagList.appendChild(item);
-	}
+			elements.add(e);
+		}
 
-	protected native Element getFocusedElement(Element element) /*-{
-		return element.ownerDocument.activeElement;
-	}-*/;
+		// remove stale elements
+		for (LIElement e : existing.values()) {
+			e.removeFromParent();
+		}
 
-	private Element getFocusedElement() {
-		return getFocusedElement(RootPanel.getBodyElement());
+		// move only elements which are not in place
+		Node cursor = suggestionList.getFirstChild();
+		for (LIElement e : elements) {
+			if (e.equals(cursor)) {
+				cursor = cursor.getNextSibling();
+			} else {
+				suggestionList.insertBefore(e, cursor);
+			}
+		}
+		return elements;
 	}
 
-	private void resetInputText() {
-		// reset input text
-		inputText.setValue("");
-		inputText.getStyle().setWidth(50, Unit.PX);
+	private static String getSuggestionKey(Tag<?> tag) {
+		return tag.getKey();
 	}
 
-	/*
-	 * ----------------------------------------------------------------------------
-	 * ---- S U G G E S T I O N S ----
-	 * ----------------------------------------------------------------------------
-	 */
-	private static int l = 0;
-
 	protected LIElement createSuggestionElement(final T tag) {
 		// create list item
 		final LIElement listItem = Document.get().createLIElement();
 		listItem.setId("suggestion-" + (l++));
 		listItem.setClassName("tags-suggestion-list-suggestion");
 		listItem.setTabIndex(0);
-		// Set event listeners
-		DOM.setEventListener(listItem.<Element> cast(), new EventListener() {
+		return listItem;
+	}
 
-			@Override
-			public void onBrowserEvent(Event event) {
-				//
-				// There is no ONMOUSEOUT because every time when mouse over is
-				// called , we will remove class about active tag.
-				//
-				if (event.getTypeInt() == Event.ONMOUSEOVER) {
-					for (int i = 0; i < suggestionList.getChildCount(); i++) {
-						suggestionList.getChild(i).<Element> cast().removeClassName(
-								"tags-suggestion-list-suggestion-focus");
-					}
-					listItem.addClassName("tags-suggestion-list-suggestion-focus");
-					//
-					// Handles suggestion from suggestion list
-					//
-				} else if (event.getTypeInt() == Event.ONCLICK) {
-					handleNewTag(tag);
-				}
+	/**
+	 * Handles events of all suggestion list items.
+	 */
+	private void onSuggestionListEvent(Event event) {
+		Element listItem = getListItem(suggestionList, event.getEventTarget());
+		if (listItem == null) {
+			return;
+		}
+
+		//
+		// There is no ONMOUSEOUT because every time when mouse over is
+		// called , we will remove class about active tag.
+		//
+		if (event.getTypeInt() == Event.ONMOUSEOVER) {
+			setFocusedSuggestion(listItem.getPropertyInt(SUGGESTION_INDEX));
+			//
+			// Handles suggestion from suggestion list
+			//
+		} else if (event.getTypeInt() == Event.ONCLICK) {
+			// reconciled list keeps suggestions of previous text while new ones are found
+			if (isSuggestionTextCurrent()) {
+				handleNewTag(suggestedTags.get(listItem.getPropertyInt(SUGGESTION_INDEX)));
 			}
-		});
-		DOM.sinkEvents(listItem.<Element> cast(), Event.ONMOUSEOVER | Event.ONCLICK);
-		return listItem;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> when shown suggestions were found for actual text of input
+	 */
+	private boolean isSuggestionTextCurrent() {
+		return inputText.getValue().equals(suggestionText);
+	}
+
+	/**
+	 * @return <code>true</code> when suggestion list is displayed
+	 */
+	private boolean isSuggestionListShown() {
+		return suggestionList != null && Display.BLOCK.getCssName().equals(suggestionList.getStyle().getDisplay());
 	}
 
 	private void hideSuggestions() {
-		suggestionList.getStyle().setDisplay(Display.NONE);
+		if (suggestionList != null) {
+			suggestionList.getStyle().setDisplay(Display.NONE);
+		}
 	}
 
 	private T findInSuggestedTags(String value) {
 		if (suggestedTags != null) {
+			String key = Tag.toKey(value);
 			for (T tag : suggestedTags) {
-				if (tag.getTag().equalsIgnoreCase(value)) {
+				if (key.equals(tag.getKey())) {
 					return tag;
 				}
 			}
@@ -643,17 +1488,20 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		}
 	}
 
-	private static boolean hasNodeStyleClass(Node node, String className) {
-		String c = node.<Element> cast().getClassName();
-		if (c != null && c.length() > 0) {
-			String[] classes = c.split(" ");
-			for (int i = 0; i < classes.length; i++) {
-				if (classes[i].equalsIgnoreCase(className)) {
-					return true;
-				}
-			}
+	/**
+	 * Finds child of list which is or contains event target.
+	 *
+	 * @return list item or <code>null</code> when target is not in any item
+	 */
+	private static Element getListItem(Element list, EventTarget target) {
+		if (target == null || !Element.is(target)) {
+			return null;
 		}
-		return false;
+		Element e = target.cast();
+		while (e != null && !list.equals(e.getParentElement())) {
+			e = e.getParentElement();
+		}
+		return e;
 	}
 
 	private static boolean isAlphaNumericKey(int key) {
@@ -731,14 +1579,29 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * Removes all tags and clear text input
 	 */
 	public void clear() {
+		removeAllTags();
+		if (inputText != null) {
+			inputText.setValue("");
+		}
+	}
+
+	private void removeAllTags() {
 		if (!getInputTags().isEmpty()) {
 
-			for (ItemTag<?> tag : getInputTags()) {
+			for (ItemTag<T> tag : getInputTags()) {
 				tag.listItem.removeFromParent();
+				tagsChanged(tag.getTag(), false);
 			}
 			getInputTags().clear();
+			selectedKeys.clear();
 		}
-		inputText.setValue("");
+	}
+
+	/**
+	 * @return <code>true</code> when component is editable
+	 */
+	public boolean isEditable() {
+		return editable;
 	}
 
 	/**
@@ -748,19 +1611,26 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * @param value boolean value, when <code>true</code> then component is editable otherwise is not
 	 */
 	public void setEditable(boolean value) {
-		if (inputText.getParentElement().getParentElement() == null && value) {
-			tagList.appendChild(inputText.getParentElement());
+		if (!editable && value) {
+			editable = true;
+			if (inputText != null) {
+				tagList.appendChild(inputText.getParentElement());
+			}
 			for (ItemTag<T> itemTag : getInputTags()) {
 				itemTag.listItem.getFirstChildElement().getNextSiblingElement().getStyle().setVisibility(Visibility.VISIBLE);
 				itemTag.listItem.addClassName("input-tag-list-item-deletable");
 			}
-		} else if (inputText.getParentElement().getParentElement() != null && !value) {
-			inputText.getParentElement().removeFromParent();
+		} else if (editable && !value) {
+			editable = false;
+			if (inputText != null) {
+				inputText.getParentElement().removeFromParent();
+			}
 			for (ItemTag<T> itemTag : getInputTags()) {
 				itemTag.listItem.getFirstChildElement().getNextSiblingElement().getStyle().setVisibility(Visibility.HIDDEN);
 				itemTag.listItem.removeClassName("input-tag-list-item-deletable");
 			}
 		}
+		updateLazyTabStop();
 
 		if (value) {
 			component.removeClassName("input-tag-mode-read-only");
@@ -772,12 +1642,16 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 
 	@Override
 	public void setTabIndex(int index) {
-		inputText.setTabIndex(index);
+		tabIndex = index;
+		if (inputText != null) {
+			inputText.setTabIndex(index);
+		}
+		updateLazyTabStop();
 	}
 
 	@Override
 	public int getTabIndex() {
-		return inputText.getTabIndex();
+		return tabIndex;
 	}
 
 	/**
@@ -795,7 +1669,50 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	 * @param suggestionDelegate the suggestionDelegate to set
 	 */
 	public void setSuggestionDelegate(SuggestionCallback<T> suggestionDelegate) {
+		if (isAttached()) {
+			detachDelegate();
+		}
 		this.suggestionDelegate = suggestionDelegate;
+		if (isAttached()) {
+			attachDelegate();
+		}
+	}
+
+	/**
+	 * Policy which decides when suggestions are requested while typing.
+	 *
+	 * @return the suggestionDispatchPolicy
+	 */
+	public SuggestionDispatchPolicy getSuggestionDispatchPolicy() {
+		return suggestionDispatcher.getPolicy();
+	}
+
+	/**
+	 * Policy which decides when suggestions are requested while typing. By
+	 * default {@link SuggestionDispatchPolicy#IMMEDIATE} is used.
+	 *
+	 * @param suggestionDispatchPolicy the suggestionDispatchPolicy to set
+	 */
+	public void setSuggestionDispatchPolicy(SuggestionDispatchPolicy suggestionDispatchPolicy) {
+		suggestionDispatcher.setPolicy(suggestionDispatchPolicy);
+	}
+
+	/**
+	 * @return the textMeasurer
+	 */
+	public TextMeasurer getTextMeasurer() {
+		return textMeasurer;
+	}
+
+	/**
+	 * Measurer of input text width. By default {@link CanvasTextMeasurer} is
+	 * used when browser supports canvas. When <code>null</code> is set, width
+	 * is measured by hidden span element which forces layout of page.
+	 *
+	 * @param textMeasurer the textMeasurer to set
+	 */
+	public void setTextMeasurer(TextMeasurer textMeasurer) {
+		this.textMeasurer = textMeasurer;
 	}
 
 	/**
@@ -826,6 +1743,25 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		this.tagValidator = tagValidator;
 	}
 
+	/**
+	 * @return the asyncTagValidator
+	 */
+	public AsyncTagValidator getAsyncTagValidator() {
+		return asyncTagValidator;
+	}
+
+	/**
+	 * Validator of new plain tags which are appended immediately, but shown
+	 * as pending until they are confirmed. Tags which are not confirmed are
+	 * removed. It is used after {@link #getTagValidator()}, e.g.
+	 * {@link BatchingTagValidator} over server lookup.
+	 *
+	 * @param asyncTagValidator the asyncTagValidator to set
+	 */
+	public void setAsyncTagValidator(AsyncTagValidator asyncTagValidator) {
+		this.asyncTagValidator = asyncTagValidator;
+	}
+
 	/**
 	 * @return the allowWhiteSpaceInTag
 	 */
@@ -833,6 +1769,24 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		return allowWhiteSpaceInTag;
 	}
 
+	/**
+	 * @return the pasteDelimiters
+	 */
+	public String getPasteDelimiters() {
+		return pasteDelimiters;
+	}
+
+	/**
+	 * Characters which separate tags in pasted text. Text pasted into input
+	 * text is split into tags only when it contains some delimiter. Space is
+	 * delimiter also when white space is not allowed in tags.
+	 *
+	 * @param pasteDelimiters the pasteDelimiters to set, default are comma, semicolon, tab and new line
+	 */
+	public void setPasteDelimiters(String pasteDelimiters) {
+		this.pasteDelimiters = pasteDelimiters != null ? pasteDelimiters : "";
+	}
+
 	/**
 	 * @param allowWhiteSpaceInTag the allowWhiteSpaceInTag to set
 	 */
@@ -840,6 +1794,94 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		this.allowWhiteSpaceInTag = allowWhiteSpaceInTag;
 	}
 
+	/**
+	 * Returns <code>true</code> when tag equal to given tag is already
+	 * selected. Check takes constant time.
+	 *
+	 * @param tag tested tag
+	 * @return <code>true</code> when tag is selected
+	 */
+	public boolean isSelected(T tag) {
+		return selectedKeys.containsKey(tag.getKey());
+	}
+
+	private void addSelectedKey(T tag) {
+		Integer count = selectedKeys.get(tag.getKey());
+		selectedKeys.put(tag.getKey(), count == null ? 1 : count + 1);
+	}
+
+	private void removeSelectedKey(T tag) {
+		Integer count = selectedKeys.get(tag.getKey());
+		if (count == null || count <= 1) {
+			selectedKeys.remove(tag.getKey());
+		} else {
+			selectedKeys.put(tag.getKey(), count - 1);
+		}
+	}
+
+	/**
+	 * Adds handler of tag changes. Changes made within one event loop turn
+	 * are reported by one event.
+	 *
+	 * @param handler handler of changes
+	 * @return registration of handler
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public HandlerRegistration addTagsChangedHandler(TagsChangedEvent.Handler<T> handler) {
+		return addHandler(handler, (TagsChangedEvent.Type) TagsChangedEvent.getType());
+	}
+
+	/**
+	 * Records change of tags and schedules {@link TagsChangedEvent} at the end
+	 * of current event loop turn. Nothing is recorded when there is no
+	 * handler. Tag added and removed within the same turn, or removed and
+	 * added again, is not reported. Pending tags are reported as added when
+	 * they are confirmed, see {@link #isPending(Tag)}.
+	 *
+	 * @param tag changed tag
+	 * @param added <code>true</code> when tag was added, <code>false</code> when it was removed
+	 */
+	private void tagsChanged(T tag, boolean added) {
+		// pending tag is reported when it is confirmed
+		if (pendingTags.containsKey(tag)) {
+			if (!added) {
+				pendingTags.remove(tag);
+			}
+			return;
+		}
+		if (getHandlerCount(TagsChangedEvent.getType()) == 0) {
+			return;
+		}
+		if (addedTags == null) {
+			addedTags = new ArrayList<T>();
+			removedTags = new ArrayList<T>();
+			Scheduler.get().scheduleFinally(new ScheduledCommand() {
+
+				@Override
+				public void execute() {
+					fireTagsChanged();
+				}
+			});
+		}
+		if (added) {
+			if (!removedTags.remove(tag)) {
+				addedTags.add(tag);
+			}
+		} else if (!addedTags.remove(tag)) {
+			removedTags.add(tag);
+		}
+	}
+
+	private void fireTagsChanged() {
+		List<T> added = addedTags;
+		List<T> removed = removedTags;
+		addedTags = null;
+		removedTags = null;
+		if (!added.isEmpty() || !removed.isEmpty()) {
+			fireEvent(new TagsChangedEvent<T>(added, removed));
+		}
+	}
+
 	/**
 	 * @return the tags
 	 */
@@ -855,6 +1897,158 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		return t;
 	}
 
+	@Override
+	protected void onLoad() {
+		super.onLoad();
+		attachDelegate();
+	}
+
+	@Override
+	protected void onUnload() {
+		detachDelegate();
+		super.onUnload();
+	}
+
+	private void attachDelegate() {
+		if (suggestionDelegate instanceof SuggestionDelegateLifecycle) {
+			((SuggestionDelegateLifecycle) suggestionDelegate).onAttach(this);
+		}
+	}
+
+	private void detachDelegate() {
+		if (suggestionDelegate instanceof SuggestionDelegateLifecycle) {
+			((SuggestionDelegateLifecycle) suggestionDelegate).onDetach(this);
+		}
+	}
+
+	/**
+	 * Attaches component into element which is not managed by any panel,
+	 * e.g. into rendered cell. Component is detached on window close, when
+	 * it was not detached by {@link #detachFromElement()} before.
+	 *
+	 * @param parent element into which component is appended
+	 */
+	void attachToElement(Element parent) {
+		parent.appendChild(getElement());
+		onAttach();
+		RootPanel.detachOnWindowClose(this);
+	}
+
+	/**
+	 * Detaches component attached by {@link #attachToElement(Element)} and
+	 * removes its element from DOM.
+	 */
+	void detachFromElement() {
+		if (RootPanel.isInDetachList(this)) {
+			RootPanel.detachNow(this);
+		} else if (isAttached()) {
+			onDetach();
+		}
+		getElement().removeFromParent();
+	}
+
+	/**
+	 * @return the metricsListener
+	 */
+	public InputTagMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	/**
+	 * @param metricsListener listener of performance metrics, <code>null</code> stops measuring
+	 */
+	public void setMetricsListener(InputTagMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * @return the maxSuggestions
+	 */
+	public int getMaxSuggestions() {
+		return maxSuggestions;
+	}
+
+	/**
+	 * Maximal number of shown suggestions. Limit is passed to suggestion
+	 * delegate as a hint ({@link SuggestionCallback.RequestCallback#getMaxSuggestions()})
+	 * and enforced on found suggestions.
+	 *
+	 * @param maxSuggestions the maxSuggestions to set, <code>0</code> means no limit
+	 */
+	public void setMaxSuggestions(int maxSuggestions) {
+		this.maxSuggestions = Math.max(0, maxSuggestions);
+	}
+
+	/**
+	 * @return the suggestionComparator
+	 */
+	public Comparator<? super T> getSuggestionComparator() {
+		return suggestionComparator;
+	}
+
+	/**
+	 * Order of shown suggestions. When {@link #getMaxSuggestions()} is set,
+	 * the first suggestions by this order are shown.
+	 *
+	 * @param suggestionComparator the suggestionComparator to set, <code>null</code> keeps order of delegate
+	 */
+	public void setSuggestionComparator(Comparator<? super T> suggestionComparator) {
+		this.suggestionComparator = suggestionComparator;
+	}
+
+	/**
+	 * @return the reconcileSuggestions
+	 */
+	public boolean isReconcileSuggestions() {
+		return reconcileSuggestions;
+	}
+
+	/**
+	 * When set to <code>true</code>, suggestion list is not rebuilt for every
+	 * new suggestions. Elements of suggestions which are still present are kept,
+	 * only stale elements are removed and only new suggestions are created.
+	 *
+	 * @param reconcileSuggestions the reconcileSuggestions to set
+	 */
+	public void setReconcileSuggestions(boolean reconcileSuggestions) {
+		this.reconcileSuggestions = reconcileSuggestions;
+	}
+
+	/**
+	 * @return the visibleSuggestionRows
+	 */
+	public int getVisibleSuggestionRows() {
+		return visibleSuggestionRows;
+	}
+
+	/**
+	 * Virtualizes suggestion list. Suggestion wrapper is scrollable and shows
+	 * given number of rows, only visible suggestions plus few around them have
+	 * elements. Keyboard navigation and selection work over all suggestions.
+	 *
+	 * @param visibleSuggestionRows number of visible rows, <code>0</code> renders all suggestions
+	 */
+	public void setVisibleSuggestionRows(int visibleSuggestionRows) {
+		this.visibleSuggestionRows = Math.max(0, visibleSuggestionRows);
+		this.suggestionRowHeight = 0;
+		this.renderedSuggestionsFrom = 0;
+		if (suggestionList != null) {
+			updateVirtualSuggestionList();
+		}
+	}
+
+	private void updateVirtualSuggestionList() {
+		Element wrapper = suggestionList.getParentElement();
+		if (isVirtualSuggestionList()) {
+			wrapper.getStyle().setOverflowY(Overflow.AUTO);
+		} else {
+			wrapper.getStyle().clearOverflowY();
+			wrapper.getStyle().clearProperty("maxHeight");
+			suggestionList.getStyle().clearPaddingTop();
+			suggestionList.getStyle().clearPaddingBottom();
+		}
+	}
+
 	/**
 	 * @return the allowDuplicates
 	 */
@@ -872,8 +2066,9 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 	@Override
 	public void setFocus(boolean focused) {
 		if (focused) {
+			ensureEditingLayout();
 			inputText.focus();
-		} else {
+		} else if (inputText != null) {
 			inputText.blur();
 		}
 	}
@@ -905,6 +2100,86 @@ public abstract class InputTag<T extends Tag<?>> extends FocusWidget {
 		}
 	}
 
+	/**
+	 * Inner private class that represents one call of suggestion delegate.
+	 */
+	private class SuggestionRequest implements SuggestionCallback.RequestCallback<T> {
+
+		private final int id;
+		private final String text;
+		private final int maxSuggestions;
+		private boolean cancelled = false;
+		private Command cancelCommand;
+		/**
+		 * Time of delegate call, measured only for {@link InputTag#metricsListener}
+		 */
+		private double dispatchedAt;
+
+		public SuggestionRequest(int id, String text, int maxSuggestions) {
+			this.id = id;
+			this.text = text;
+			this.maxSuggestions = maxSuggestions;
+		}
+
+		@Override
+		public int getId() {
+			return id;
+		}
+
+		@Override
+		public boolean found(List<T> suggestions) {
+			InputTagMetricsListener metrics = metricsListener;
+			if (cancelled || id != suggestionSynchroId) {
+				if (metrics != null) {
+					metrics.onStaleSuggestionDropped(text, Duration.currentTimeMillis() - dispatchedAt);
+				}
+				return false;
+			}
+			if (pendingSuggestionRequest == this) {
+				pendingSuggestionRequest = null;
+			}
+
+			// we will filter out already suggested tags
+			suggestedTags = limitSuggestions(isAllowDuplicates() ? suggestions : removeDuplicates(suggestions));
+			if (metrics != null) {
+				double foundAt = Duration.currentTimeMillis();
+				metrics.onSuggestionFound(text, suggestions.size(), foundAt - dispatchedAt);
+				renderSuggestions(text);
+				metrics.onSuggestionsRendered(text, suggestionList.getChildCount(), Duration.currentTimeMillis() - foundAt);
+			} else {
+				renderSuggestions(text);
+			}
+			return true;
+		}
+
+		@Override
+		public int getMaxSuggestions() {
+			return maxSuggestions;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public void setCancelCommand(Command cancelCommand) {
+			this.cancelCommand = cancelCommand;
+			if (cancelled && cancelCommand != null) {
+				cancelCommand.execute();
+			}
+		}
+
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				if (cancelCommand != null) {
+					cancelCommand.execute();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Enum that defines modes component modes.
 	 */
@@ -0,0 +1,155 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.List;
+
+import com.google.gwt.cell.client.AbstractCell;
+import com.google.gwt.cell.client.ValueUpdater;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.BrowserEvents;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+
+/**
+ * Cell which renders tags with the same markup as read only {@link InputTag},
+ * but without any widget or listener, so tables with many rows are rendered
+ * at once. When cell is clicked, live {@link InputTag} created by
+ * {@link #createInputTag()} is swapped in. When focus leaves it, tags are
+ * passed to {@link ValueUpdater} and cell is rendered again. Only one cell is
+ * edited at a time.
+ *
+ * @param <T>
+ */
+public abstract class InputTagCell<T extends Tag<?>> extends AbstractCell<List<T>> {
+
+	private InputTag<T> editor;
+	private Element editorParent;
+	private Context editorContext;
+	private ValueUpdater<List<T>> editorUpdater;
+
+	public InputTagCell() {
+		super(BrowserEvents.CLICK, BrowserEvents.BLUR);
+	}
+
+	/**
+	 * Creates component which edits tags of clicked cell.
+	 *
+	 * @return new component
+	 */
+	protected abstract InputTag<T> createInputTag();
+
+	@Override
+	public void render(Context context, List<T> value, SafeHtmlBuilder sb) {
+		// edited cell is rendered again by its table, edit is abandoned
+		if (editor != null && isEdited(context)) {
+			stopEditing();
+		}
+
+		sb.appendHtmlConstant("<div class=\"input-tag input-tag-mode-read-only\">"
+				+ "<div class=\"input-tag-list\"><ul class=\"input-tag-list-tags\">");
+		if (value != null) {
+			for (T tag : value) {
+				sb.appendHtmlConstant("<li class=\"input-tag-list-item input-tag-list-box\"><span>");
+				if (tag.getTag() != null) {
+					sb.appendEscaped(tag.getTag());
+				}
+				sb.appendHtmlConstant("</span></li>");
+			}
+		}
+		sb.appendHtmlConstant("</ul></div></div>");
+	}
+
+	@Override
+	public void onBrowserEvent(Context context, Element parent, List<T> value, NativeEvent event,
+			ValueUpdater<List<T>> valueUpdater) {
+		super.onBrowserEvent(context, parent, value, event, valueUpdater);
+
+		boolean edited = editor != null && parent.isOrHasChild(editor.getElement());
+		if (BrowserEvents.CLICK.equals(event.getType()) && !edited) {
+			startEditing(context, parent, value, valueUpdater);
+		} else if (BrowserEvents.BLUR.equals(event.getType()) && edited) {
+			// focus may move to another element of editor, it is known after blur
+			final InputTag<T> blurred = editor;
+			Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+				@Override
+				public void execute() {
+					if (editor == blurred && !editor.getElement().isOrHasChild(getFocusedElement())) {
+						finishEditing();
+					}
+				}
+			});
+		}
+	}
+
+	@Override
+	public boolean isEditing(Context context, Element parent, List<T> value) {
+		return editor != null && parent.isOrHasChild(editor.getElement());
+	}
+
+	@Override
+	public boolean resetFocus(Context context, Element parent, List<T> value) {
+		if (isEditing(context, parent, value)) {
+			editor.setFocus(true);
+			return true;
+		}
+		return false;
+	}
+
+	private void startEditing(Context context, Element parent, List<T> value, ValueUpdater<List<T>> valueUpdater) {
+		if (editor != null) {
+			finishEditing();
+		}
+
+		InputTag<T> inputTag = createInputTag();
+		inputTag.setTags(value);
+		parent.removeAllChildren();
+		inputTag.attachToElement(parent);
+
+		editor = inputTag;
+		editorParent = parent;
+		editorContext = context;
+		editorUpdater = valueUpdater;
+		inputTag.setFocus(true);
+	}
+
+	/**
+	 * Swaps editor back to rendered tags and passes them to value updater.
+	 */
+	private void finishEditing() {
+		List<T> tags = editor.getTags();
+		Element parent = editorParent;
+		Context context = editorContext;
+		ValueUpdater<List<T>> valueUpdater = editorUpdater;
+		stopEditing();
+
+		SafeHtmlBuilder sb = new SafeHtmlBuilder();
+		render(context, tags, sb);
+		parent.setInnerSafeHtml(sb.toSafeHtml());
+		if (valueUpdater != null) {
+			valueUpdater.update(tags);
+		}
+	}
+
+	private void stopEditing() {
+		InputTag<T> inputTag = editor;
+		editor = null;
+		editorParent = null;
+		editorContext = null;
+		editorUpdater = null;
+		inputTag.detachFromElement();
+	}
+
+	private boolean isEdited(Context context) {
+		Object key = context.getKey();
+		Object editedKey = editorContext.getKey();
+		return key != null ? key.equals(editedKey) : context.getIndex() == editorContext.getIndex()
+				&& context.getColumn() == editorContext.getColumn();
+	}
+
+	private static native Element getFocusedElement() /*-{
+		return $doc.activeElement;
+	}-*/;
+
+}
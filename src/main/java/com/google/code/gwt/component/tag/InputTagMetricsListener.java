@@ -0,0 +1,50 @@
+package com.google.code.gwt.component.tag;
+
+/**
+ * Listener of performance metrics of {@link InputTag}. All times are in
+ * milliseconds. When no listener is set, metrics are not measured at all.
+ */
+public interface InputTagMetricsListener {
+
+	/**
+	 * Suggestion delegate was called.
+	 *
+	 * @param text plain text from input
+	 * @param delay time from input text change to delegate call, including delay of dispatch policy
+	 */
+	public void onSuggestionDispatched(String text, double delay);
+
+	/**
+	 * Suggestion delegate found suggestions for the latest request.
+	 *
+	 * @param text plain text from input
+	 * @param count number of found suggestions
+	 * @param latency time from delegate call to found suggestions
+	 */
+	public void onSuggestionFound(String text, int count, double latency);
+
+	/**
+	 * Suggestions of request superseded by newer request were dropped.
+	 *
+	 * @param text plain text from input of stale request
+	 * @param latency time from delegate call to dropped suggestions
+	 */
+	public void onStaleSuggestionDropped(String text, double latency);
+
+	/**
+	 * Found suggestions were rendered into suggestion list.
+	 *
+	 * @param text plain text from input
+	 * @param nodeCount number of suggestion elements in suggestion list
+	 * @param renderTime time of rendering
+	 */
+	public void onSuggestionsRendered(String text, int nodeCount, double renderTime);
+
+	/**
+	 * Width of input was updated according to its text.
+	 *
+	 * @param measureTime time of measuring and updating width
+	 */
+	public void onInputWidthMeasured(double measureTime);
+
+}
@@ -0,0 +1,24 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * List of {@link IntTag} with compact GWT-RPC encoding. Elements are written
+ * without their type signatures, so the list can contain only instances of
+ * {@link IntTag} itself, not of its subclasses.
+ *
+ * @see IntTagList_CustomFieldSerializer
+ */
+public class IntTagList extends ArrayList<IntTag> {
+
+	private static final long serialVersionUID = -2714513406932571856L;
+
+	public IntTagList() {
+	}
+
+	public IntTagList(Collection<? extends IntTag> tags) {
+		super(tags);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.google.code.gwt.component.tag;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * GWT-RPC serializer of {@link IntTagList}. List is written as its size
+ * followed by fields of elements, elements have no type signatures and
+ * values are primitive ints. Flags of <code>null</code> values are written
+ * only when some value is <code>null</code>.
+ */
+public class IntTagList_CustomFieldSerializer extends CustomFieldSerializer<IntTagList> {
+
+	public static void deserialize(SerializationStreamReader reader, IntTagList instance) throws SerializationException {
+		int size = reader.readInt();
+		boolean nullable = reader.readBoolean();
+		instance.ensureCapacity(size);
+		for (int i = 0; i < size; i++) {
+			if (reader.readBoolean()) {
+				instance.add(null);
+				continue;
+			}
+			IntTag tag = new IntTag();
+			tag.value = nullable && !reader.readBoolean() ? null : reader.readInt();
+			tag.tag = reader.readString();
+			instance.add(tag);
+		}
+	}
+
+	public static void serialize(SerializationStreamWriter writer, IntTagList instance) throws SerializationException {
+		boolean nullable = false;
+		for (IntTag tag : instance) {
+			if (tag != null && tag.getClass() != IntTag.class) {
+				throw new SerializationException("IntTagList can contain only IntTag instances, not "
+						+ tag.getClass().getName());
+			}
+			nullable |= tag != null && tag.value == null;
+		}
+		writer.writeInt(instance.size());
+		writer.writeBoolean(nullable);
+		for (IntTag tag : instance) {
+			writer.writeBoolean(tag == null);
+			if (tag == null) {
+				continue;
+			}
+			if (nullable) {
+				writer.writeBoolean(tag.value != null);
+			}
+			if (tag.value != null) {
+				writer.writeInt(tag.value);
+			}
+			writer.writeString(tag.tag);
+		}
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, IntTagList instance) throws SerializationException {
+		deserialize(reader, instance);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, IntTagList instance) throws SerializationException {
+		serialize(writer, instance);
+	}
+
+}
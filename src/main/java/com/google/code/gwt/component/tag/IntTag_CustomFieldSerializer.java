@@ -0,0 +1,37 @@
+package com.google.code.gwt.component.tag;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * GWT-RPC serializer of {@link IntTag}. Value is written as primitive int
+ * instead of {@link Integer} object with its type signature.
+ */
+public class IntTag_CustomFieldSerializer extends CustomFieldSerializer<IntTag> {
+
+	public static void deserialize(SerializationStreamReader reader, IntTag instance) throws SerializationException {
+		instance.value = reader.readBoolean() ? reader.readInt() : null;
+		instance.tag = reader.readString();
+	}
+
+	public static void serialize(SerializationStreamWriter writer, IntTag instance) throws SerializationException {
+		writer.writeBoolean(instance.value != null);
+		if (instance.value != null) {
+			writer.writeInt(instance.value);
+		}
+		writer.writeString(instance.tag);
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, IntTag instance) throws SerializationException {
+		deserialize(reader, instance);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, IntTag instance) throws SerializationException {
+		serialize(writer, instance);
+	}
+
+}
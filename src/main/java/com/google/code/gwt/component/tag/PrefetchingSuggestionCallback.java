@@ -0,0 +1,267 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Caching suggestion callback which loads suggestions of likely texts in
+ * advance, e.g. empty text shown on focus of {@link InputTag.Mode#SELECT_BOX}
+ * and the most frequent first characters. Texts are requested one by one,
+ * each after the previous one was found and current event loop turn ended,
+ * so prefetch does not block user. Text which is not found in
+ * <code>requestTimeout</code> is skipped. {@link InputTag} starts prefetch
+ * when it is attached and releases it when it is detached, prefetch is
+ * cancelled when the last component sharing this callback is detached. <br/>
+ * At most half of cache capacity is used by prefetched texts, so they are
+ * not evicted by prefetch itself.
+ *
+ * @param <T>
+ */
+public class PrefetchingSuggestionCallback<T extends Tag<?>> extends CachingSuggestionCallback<T> {
+
+	private final List<String> prefetchTexts;
+	/**
+	 * Index of the next text to prefetch
+	 */
+	private int next = 0;
+	private boolean running = false;
+	/**
+	 * Number of {@link #prefetch()} calls not released by {@link #cancelPrefetch()}
+	 */
+	private int users = 0;
+	/**
+	 * Attached components which started prefetch
+	 */
+	private final Map<InputTag<?>, Boolean> prefetchingTags = new IdentityHashMap<InputTag<?>, Boolean>();
+	private int requestTimeout = 5000;
+	private PrefetchRequest request;
+
+	/**
+	 * @param delegate callback which results are cached
+	 * @param capacity maximal number of cached texts
+	 * @param prefetchTexts texts to prefetch in order of importance
+	 */
+	public PrefetchingSuggestionCallback(SuggestionCallback<T> delegate, int capacity, List<String> prefetchTexts) {
+		this(delegate, capacity, 0, prefetchTexts);
+	}
+
+	/**
+	 * @param delegate callback which results are cached
+	 * @param capacity maximal number of cached texts
+	 * @param resultLimit number of suggestions from which delegate truncates results, <code>0</code> when delegate
+	 *            never truncates
+	 * @param prefetchTexts texts to prefetch in order of importance
+	 */
+	public PrefetchingSuggestionCallback(SuggestionCallback<T> delegate, int capacity, int resultLimit,
+			List<String> prefetchTexts) {
+		super(delegate, capacity, resultLimit);
+		int limit = Math.max(1, capacity / 2);
+		this.prefetchTexts = new ArrayList<String>(prefetchTexts.subList(0, Math.min(limit, prefetchTexts.size())));
+	}
+
+	/**
+	 * Creates texts to prefetch: empty text followed by given characters.
+	 *
+	 * @param firstCharacters the most likely first characters of typed text
+	 * @return texts to prefetch
+	 */
+	public static List<String> firstCharacters(String firstCharacters) {
+		List<String> texts = new ArrayList<String>(firstCharacters.length() + 1);
+		texts.add("");
+		for (int i = 0; i < firstCharacters.length(); i++) {
+			texts.add(firstCharacters.substring(i, i + 1));
+		}
+		return texts;
+	}
+
+	/**
+	 * Starts or resumes prefetch of texts which were not prefetched yet. It
+	 * does nothing when prefetch is running or finished. Every call has to be
+	 * released by {@link #cancelPrefetch()}.
+	 */
+	public void prefetch() {
+		users++;
+		start();
+	}
+
+	/**
+	 * Releases one {@link #prefetch()} call. When there is no other call,
+	 * prefetch is stopped and pending request is cancelled. Prefetch can be
+	 * resumed by {@link #prefetch()}.
+	 */
+	public void cancelPrefetch() {
+		if (users > 0) {
+			users--;
+		}
+		if (users == 0) {
+			stop();
+		}
+	}
+
+	/**
+	 * Editable component starts prefetch, so suggestions are shown on focus
+	 * without waiting.
+	 */
+	@Override
+	public void onAttach(InputTag<?> inputTag) {
+		super.onAttach(inputTag);
+		if (inputTag.isEditable()) {
+			prefetchingTags.put(inputTag, Boolean.TRUE);
+			prefetch();
+		}
+	}
+
+	@Override
+	public void onDetach(InputTag<?> inputTag) {
+		if (prefetchingTags.remove(inputTag) != null) {
+			cancelPrefetch();
+		}
+		super.onDetach(inputTag);
+	}
+
+	/**
+	 * @return time in milliseconds after which not found text is skipped
+	 */
+	public int getRequestTimeout() {
+		return requestTimeout;
+	}
+
+	/**
+	 * @param requestTimeout time in milliseconds after which not found text is skipped
+	 */
+	public void setRequestTimeout(int requestTimeout) {
+		this.requestTimeout = requestTimeout;
+	}
+
+	private void start() {
+		if (!running && next < prefetchTexts.size()) {
+			running = true;
+			scheduleNext();
+		}
+	}
+
+	private void stop() {
+		running = false;
+		if (request != null) {
+			PrefetchRequest cancelled = request;
+			request = null;
+			cancelled.cancel();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> when all texts were prefetched
+	 */
+	public boolean isPrefetched() {
+		return next >= prefetchTexts.size();
+	}
+
+	@Override
+	public void invalidate() {
+		stop();
+		super.invalidate();
+		next = 0;
+		if (users > 0) {
+			start();
+		}
+	}
+
+	private void scheduleNext() {
+		Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+			@Override
+			public void execute() {
+				if (running && request == null) {
+					if (next < prefetchTexts.size()) {
+						request = new PrefetchRequest();
+						request.timeout.schedule(requestTimeout);
+						findSuggestions(prefetchTexts.get(next), request);
+					} else {
+						running = false;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Callback of one prefetched text.
+	 */
+	private class PrefetchRequest implements RequestCallback<T> {
+
+		private boolean cancelled = false;
+		private Command cancelCommand;
+		/**
+		 * Skips text which was not found in time, e.g. delegate which never
+		 * answers
+		 */
+		private final Timer timeout = new Timer() {
+
+			@Override
+			public void run() {
+				if (request == PrefetchRequest.this) {
+					PrefetchRequest.this.cancel();
+					moveToNext();
+				}
+			}
+		};
+
+		@Override
+		public int getId() {
+			return -1;
+		}
+
+		@Override
+		public boolean found(List<T> suggestions) {
+			if (cancelled) {
+				return false;
+			}
+			// result is already cached
+			timeout.cancel();
+			moveToNext();
+			return true;
+		}
+
+		private void moveToNext() {
+			request = null;
+			next++;
+			scheduleNext();
+		}
+
+		@Override
+		public int getMaxSuggestions() {
+			return 0;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public void setCancelCommand(Command cancelCommand) {
+			this.cancelCommand = cancelCommand;
+			if (cancelled && cancelCommand != null) {
+				cancelCommand.execute();
+			}
+		}
+
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				timeout.cancel();
+				if (cancelCommand != null) {
+					cancelCommand.execute();
+				}
+			}
+		}
+	}
+
+}
@@ -4,7 +4,6 @@
  */
 package com.google.code.gwt.component.tag;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,36 +14,27 @@ import java.util.List;
  */
 public abstract class SelectBoxInputTag<T extends Tag<?>> extends InputTag<T> {
 
-	private List<T> selectBoxTags;
-
 	public SelectBoxInputTag() {
 		setMode(Mode.SELECT_BOX);
-		setSuggestionDelegate(new SelectBoxSuggestionCallback());
 	}
 
+	/**
+	 * Sets tags offered by this component only.
+	 *
+	 * @param selectBoxTags offered tags
+	 */
 	public void setSelectBoxTags(List<T> selectBoxTags) {
-		this.selectBoxTags = selectBoxTags;
+		setSelectBoxDictionary(selectBoxTags != null ? new SharedTagDictionary<T>(selectBoxTags) : null);
 	}
 
-	private class SelectBoxSuggestionCallback implements SuggestionCallback {
-
-		@Override
-		public void findSuggestions(String text, Callback callback) {
-			if (selectBoxTags != null && !selectBoxTags.isEmpty()) {
-				List<T> suggestions = new ArrayList<T>();
-				if (text == null || text.trim().length() == 0) {
-					suggestions.addAll(selectBoxTags);
-				} else {
-					for (T t : selectBoxTags) {
-						if (t.canBeSuggested(text)) {
-							suggestions.add(t);
-						}
-					}
-				}
-
-				callback.found(suggestions);
-			}
-		}
+	/**
+	 * Sets dictionary of offered tags, which can be shared with other
+	 * components on page.
+	 *
+	 * @param dictionary offered tags
+	 */
+	public void setSelectBoxDictionary(SharedTagDictionary<T> dictionary) {
+		setSuggestionDelegate(dictionary);
 	}
 
 }
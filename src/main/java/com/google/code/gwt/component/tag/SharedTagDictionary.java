@@ -0,0 +1,133 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.Collection;
+
+import com.google.code.gwt.component.shared.SuggestionIndex;
+import com.google.code.gwt.component.shared.SuggestionIndex.Weigher;
+
+/**
+ * Dictionary of tags shared by many {@link InputTag} instances on one page.
+ * It is used as their suggestion delegate, so all of them search one
+ * {@link SuggestionIndex} with one copy of normalized keys. <br/>
+ * Index is built when dictionary is created, so the first focus does not
+ * wait for it. {@link InputTag} acquires its dictionary when it is attached
+ * and releases it when it is detached. Index is kept also without
+ * references, so reattached components do not build it again, it is
+ * dropped by {@link #dispose()} when no component uses the dictionary.
+ *
+ * @param <T>
+ */
+public class SharedTagDictionary<T extends Tag<?>> implements SuggestionCallback<T>, SuggestionDelegateLifecycle {
+
+	private final Collection<T> tags;
+	private final Weigher<? super T> weigher;
+	private SuggestionIndex<T> index;
+	private int references = 0;
+
+	/**
+	 * @param tags tags of dictionary, collection is not copied
+	 */
+	public SharedTagDictionary(Collection<T> tags) {
+		this(tags, null);
+	}
+
+	/**
+	 * @param tags tags of dictionary, collection is not copied
+	 * @param weigher weight of tags, when <code>null</code> tags are suggested in order of collection
+	 */
+	public SharedTagDictionary(Collection<T> tags, Weigher<? super T> weigher) {
+		if (tags == null) {
+			throw new IllegalArgumentException("Tags of dictionary can not be null!");
+		}
+		this.tags = tags;
+		this.weigher = weigher;
+		this.index = new SuggestionIndex<T>(tags, weigher);
+	}
+
+	@Override
+	public void findSuggestions(String text, Callback<T> callback) {
+		// empty dictionary also answers, so callers do not wait for it
+		int max = callback instanceof RequestCallback ? ((RequestCallback<T>) callback).getMaxSuggestions() : 0;
+		callback.found(getIndex().find(text, max));
+	}
+
+	/**
+	 * @param text plain text
+	 * @return tag which key is equal to key of text, <code>null</code> when there is no such tag
+	 */
+	public T get(String text) {
+		return getIndex().get(text);
+	}
+
+	/**
+	 * Adds reference to dictionary.
+	 */
+	public void acquire() {
+		references++;
+	}
+
+	/**
+	 * Removes reference to dictionary.
+	 */
+	public void release() {
+		if (references <= 0) {
+			throw new IllegalStateException("Dictionary was released more times than acquired!");
+		}
+		references--;
+	}
+
+	/**
+	 * Drops index when dictionary is not used any more. Index is built again
+	 * when dictionary is searched after dispose.
+	 *
+	 * @throws IllegalStateException when dictionary is still acquired
+	 */
+	public void dispose() {
+		if (references > 0) {
+			throw new IllegalStateException("Dictionary can not be disposed while it is acquired!");
+		}
+		index = null;
+	}
+
+	@Override
+	public void onAttach(InputTag<?> inputTag) {
+		acquire();
+	}
+
+	@Override
+	public void onDetach(InputTag<?> inputTag) {
+		release();
+	}
+
+	/**
+	 * Rebuilds index after tags of dictionary were changed.
+	 */
+	public void invalidate() {
+		index = new SuggestionIndex<T>(tags, weigher);
+	}
+
+	/**
+	 * @return index of tags
+	 */
+	public SuggestionIndex<T> getIndex() {
+		if (index == null) {
+			index = new SuggestionIndex<T>(tags, weigher);
+		}
+		return index;
+	}
+
+	/**
+	 * @return number of references
+	 */
+	public int getReferences() {
+		return references;
+	}
+
+	/**
+	 * @return the tags
+	 */
+	public Collection<T> getTags() {
+		return tags;
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * List of {@link StringTag} with compact GWT-RPC encoding. Elements are
+ * written without their type signatures, so the list can contain only
+ * instances of {@link StringTag} itself, not of its subclasses.
+ *
+ * @see StringTagList_CustomFieldSerializer
+ */
+public class StringTagList extends ArrayList<StringTag> {
+
+	private static final long serialVersionUID = 6190349236573580917L;
+
+	public StringTagList() {
+	}
+
+	public StringTagList(Collection<? extends StringTag> tags) {
+		super(tags);
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.google.code.gwt.component.tag;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * GWT-RPC serializer of {@link StringTagList}. List is written as its size
+ * followed by fields of elements, elements have no type signatures. Strings
+ * are written through string table of stream, so value equal to tag costs
+ * only its index.
+ */
+public class StringTagList_CustomFieldSerializer extends CustomFieldSerializer<StringTagList> {
+
+	public static void deserialize(SerializationStreamReader reader, StringTagList instance) throws SerializationException {
+		int size = reader.readInt();
+		instance.ensureCapacity(size);
+		for (int i = 0; i < size; i++) {
+			if (reader.readBoolean()) {
+				instance.add(null);
+				continue;
+			}
+			StringTag tag = new StringTag();
+			tag.value = reader.readString();
+			tag.tag = reader.readString();
+			instance.add(tag);
+		}
+	}
+
+	public static void serialize(SerializationStreamWriter writer, StringTagList instance) throws SerializationException {
+		for (StringTag tag : instance) {
+			if (tag != null && tag.getClass() != StringTag.class) {
+				throw new SerializationException("StringTagList can contain only StringTag instances, not "
+						+ tag.getClass().getName());
+			}
+		}
+		writer.writeInt(instance.size());
+		for (StringTag tag : instance) {
+			writer.writeBoolean(tag == null);
+			if (tag != null) {
+				writer.writeString(tag.value);
+				writer.writeString(tag.tag);
+			}
+		}
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, StringTagList instance) throws SerializationException {
+		deserialize(reader, instance);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, StringTagList instance) throws SerializationException {
+		serialize(writer, instance);
+	}
+
+}
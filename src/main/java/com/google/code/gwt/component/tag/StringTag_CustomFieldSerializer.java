@@ -0,0 +1,34 @@
+package com.google.code.gwt.component.tag;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * GWT-RPC serializer of {@link StringTag}. Value is written as string
+ * instead of object with its type signature.
+ */
+public class StringTag_CustomFieldSerializer extends CustomFieldSerializer<StringTag> {
+
+	public static void deserialize(SerializationStreamReader reader, StringTag instance) throws SerializationException {
+		instance.value = reader.readString();
+		instance.tag = reader.readString();
+	}
+
+	public static void serialize(SerializationStreamWriter writer, StringTag instance) throws SerializationException {
+		writer.writeString(instance.value);
+		writer.writeString(instance.tag);
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, StringTag instance) throws SerializationException {
+		deserialize(reader, instance);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, StringTag instance) throws SerializationException {
+		serialize(writer, instance);
+	}
+
+}
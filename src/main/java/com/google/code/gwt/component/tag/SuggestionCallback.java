@@ -2,6 +2,8 @@ package com.google.code.gwt.component.tag;
 
 import java.util.List;
 
+import com.google.gwt.user.client.Command;
+
 /**
  * Interface for implementing suggestion callback that is called right after the
  * content of inputText is changed.
@@ -43,4 +45,39 @@ public interface SuggestionCallback<T extends Tag<?>> {
 
 	}
 
+	/**
+	 * Callback which also describes the request, so delegate can limit and
+	 * abort its work. Callbacks created by {@link InputTag} implement it,
+	 * delegates check it by <code>instanceof</code>, so plain {@link Callback}
+	 * implementations still work.
+	 */
+	public interface RequestCallback<T> extends Callback<T> {
+
+		/**
+		 * Hint of how many suggestions will be used. Delegate does not need to
+		 * find more of them.
+		 *
+		 * @return maximal number of suggestions, <code>0</code> when all suggestions are used
+		 */
+		public int getMaxSuggestions();
+
+		/**
+		 * Request is cancelled as soon as it is superseded by newer request or
+		 * suggestions are hidden. Suggestions of cancelled request are not used.
+		 *
+		 * @return <code>true</code> when request was cancelled
+		 */
+		public boolean isCancelled();
+
+		/**
+		 * Sets command which is executed when request is cancelled, delegate can
+		 * abort its pending work by it (e.g. cancel <code>RequestBuilder</code> request).
+		 * When request is already cancelled, command is executed immediately.
+		 *
+		 * @param cancelCommand command to execute, <code>null</code> removes command
+		 */
+		public void setCancelCommand(Command cancelCommand);
+
+	}
+
 }
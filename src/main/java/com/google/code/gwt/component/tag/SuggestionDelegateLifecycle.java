@@ -0,0 +1,29 @@
+package com.google.code.gwt.component.tag;
+
+/**
+ * Lifecycle of suggestion delegate, implemented by delegates which hold
+ * resources only while some {@link InputTag} uses them. {@link InputTag}
+ * notifies its delegate when it is attached and detached, and when delegate
+ * of attached component is replaced.
+ *
+ * @see SharedTagDictionary
+ * @see PrefetchingSuggestionCallback
+ */
+public interface SuggestionDelegateLifecycle {
+
+	/**
+	 * Component using this delegate was attached.
+	 *
+	 * @param inputTag attached component
+	 */
+	public void onAttach(InputTag<?> inputTag);
+
+	/**
+	 * Component using this delegate was detached, it is called once for
+	 * every {@link #onAttach(InputTag)}.
+	 *
+	 * @param inputTag detached component
+	 */
+	public void onDetach(InputTag<?> inputTag);
+
+}
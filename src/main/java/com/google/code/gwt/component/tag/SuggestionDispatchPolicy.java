@@ -0,0 +1,100 @@
+package com.google.code.gwt.component.tag;
+
+/**
+ * Policy which decides when {@link InputTag} asks its {@link SuggestionCallback}
+ * for suggestions while user is typing. Keystrokes that come one after another
+ * within <code>quietPeriod</code> milliseconds form one burst. Suggestions are
+ * requested on the leading edge of burst, on the trailing edge of burst (when
+ * typing stops for <code>quietPeriod</code>), or both. When <code>maxWait</code>
+ * is set, pending request is never delayed for more than <code>maxWait</code>
+ * milliseconds, even when the burst continues. <br/>
+ * Requests forced by component itself (focus, tag selection) are never delayed.
+ */
+public class SuggestionDispatchPolicy {
+
+	/**
+	 * Suggestions are requested on every keystroke. This is default policy.
+	 */
+	public static final SuggestionDispatchPolicy IMMEDIATE = new SuggestionDispatchPolicy(0, 0, true, false);
+
+	private final int quietPeriod;
+	private final int maxWait;
+	private final boolean leading;
+	private final boolean trailing;
+
+	/**
+	 * @param quietPeriod milliseconds without keystroke after which burst ends
+	 * @param maxWait maximal delay of pending request in milliseconds, <code>0</code> means no limit
+	 * @param leading request suggestions on the first keystroke of burst
+	 * @param trailing request suggestions when burst ends
+	 */
+	public SuggestionDispatchPolicy(int quietPeriod, int maxWait, boolean leading, boolean trailing) {
+		if (quietPeriod < 0 || maxWait < 0) {
+			throw new IllegalArgumentException("Quiet period and max wait can not be negative!");
+		}
+		if (!leading && !trailing) {
+			throw new IllegalArgumentException("At least one of leading or trailing edge has to be set!");
+		}
+		this.quietPeriod = quietPeriod;
+		this.maxWait = maxWait;
+		this.leading = leading;
+		this.trailing = trailing;
+	}
+
+	/**
+	 * Suggestions are requested only after user stops typing for given time.
+	 *
+	 * @param quietPeriod milliseconds without keystroke
+	 * @return policy
+	 */
+	public static SuggestionDispatchPolicy debounce(int quietPeriod) {
+		return new SuggestionDispatchPolicy(quietPeriod, 0, false, true);
+	}
+
+	/**
+	 * Suggestions are requested on the first keystroke and then at most once
+	 * per given interval while user is typing.
+	 *
+	 * @param interval milliseconds between two requests
+	 * @return policy
+	 */
+	public static SuggestionDispatchPolicy throttle(int interval) {
+		return new SuggestionDispatchPolicy(interval, interval, true, true);
+	}
+
+	/**
+	 * @return <code>true</code> when requests are delayed by this policy
+	 */
+	public boolean isDeferred() {
+		return quietPeriod > 0;
+	}
+
+	/**
+	 * @return the quietPeriod
+	 */
+	public int getQuietPeriod() {
+		return quietPeriod;
+	}
+
+	/**
+	 * @return the maxWait
+	 */
+	public int getMaxWait() {
+		return maxWait;
+	}
+
+	/**
+	 * @return the leading
+	 */
+	public boolean isLeading() {
+		return leading;
+	}
+
+	/**
+	 * @return the trailing
+	 */
+	public boolean isTrailing() {
+		return trailing;
+	}
+
+}
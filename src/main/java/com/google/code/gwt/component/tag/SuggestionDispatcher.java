@@ -0,0 +1,115 @@
+package com.google.code.gwt.component.tag;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Timer which runs suggestion command according to {@link SuggestionDispatchPolicy}.
+ */
+class SuggestionDispatcher extends Timer {
+
+	private final ScheduledCommand command;
+	private SuggestionDispatchPolicy policy = SuggestionDispatchPolicy.IMMEDIATE;
+	/**
+	 * <code>true</code> while burst of requests is in progress
+	 */
+	private boolean scheduled = false;
+	/**
+	 * <code>true</code> when some request of current burst was not dispatched yet
+	 */
+	private boolean pending = false;
+	private double lastRequest;
+	private double lastDispatch;
+
+	public SuggestionDispatcher(ScheduledCommand command) {
+		this.command = command;
+	}
+
+	/**
+	 * Requests command according to policy.
+	 */
+	public void request() {
+		if (!policy.isDeferred()) {
+			command.execute();
+			return;
+		}
+
+		double now = Duration.currentTimeMillis();
+		lastRequest = now;
+		if (!scheduled) {
+			// new burst
+			scheduled = true;
+			lastDispatch = now;
+			if (policy.isLeading()) {
+				command.execute();
+			} else {
+				pending = true;
+			}
+		} else {
+			pending = true;
+		}
+		reschedule(now);
+	}
+
+	/**
+	 * Runs pending request immediately and ends current burst. It does
+	 * nothing when there is no pending request.
+	 */
+	public void flush() {
+		if (pending) {
+			cancel();
+			command.execute();
+		}
+	}
+
+	/**
+	 * Drops pending request and ends current burst.
+	 */
+	@Override
+	public void cancel() {
+		super.cancel();
+		scheduled = false;
+		pending = false;
+	}
+
+	@Override
+	public void run() {
+		double now = Duration.currentTimeMillis();
+		boolean quiet = now - lastRequest >= policy.getQuietPeriod();
+		if (pending && (quiet ? policy.isTrailing() : isMaxWaitElapsed(now))) {
+			pending = false;
+			lastDispatch = now;
+			command.execute();
+		}
+
+		if (quiet) {
+			scheduled = false;
+			pending = false;
+		} else {
+			reschedule(now);
+		}
+	}
+
+	private boolean isMaxWaitElapsed(double now) {
+		return policy.getMaxWait() > 0 && now - lastDispatch >= policy.getMaxWait();
+	}
+
+	private void reschedule(double now) {
+		double delay = policy.getQuietPeriod() - (now - lastRequest);
+		if (pending && policy.getMaxWait() > 0) {
+			delay = Math.min(delay, policy.getMaxWait() - (now - lastDispatch));
+		}
+		schedule(Math.max(1, (int) Math.ceil(delay)));
+	}
+
+	public SuggestionDispatchPolicy getPolicy() {
+		return policy;
+	}
+
+	public void setPolicy(SuggestionDispatchPolicy policy) {
+		cancel();
+		this.policy = policy != null ? policy : SuggestionDispatchPolicy.IMMEDIATE;
+	}
+
+}
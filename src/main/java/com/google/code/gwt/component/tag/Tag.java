@@ -12,9 +12,25 @@ import java.io.Serializable;
 public class Tag<T> implements Serializable {
 
 	private static final long serialVersionUID = -5381676167463921282L;
+	/**
+	 * Base letters of characters from U+00C0 to U+017F, <code>*</code> marks
+	 * characters folded into two letters
+	 */
+	private static final String FOLDED_LATIN = "aaaaaa*ceeeeiiiidnooooo\u00d7ouuuuy**"
+			+ "aaaaaa*ceeeeiiiidnooooo\u00f7ouuuuy*y"
+			+ "aaaaaaccccccccddddeeeeeeeeeegggg"
+			+ "gggghhhhiiiiiiiiii**jjkkklllllll"
+			+ "lllnnnnnnnnnoooooo**rrrrrrssssss"
+			+ "ssttttttuuuuuuuuuuuuwwyyyzzzzzzs";
+	private static final char FOLDED_LATIN_FROM = '\u00c0';
 
 	public T value;
 	public String tag;
+	/**
+	 * Cached key of tag, valid while {@link #keySource} is the actual tag
+	 */
+	private transient String key;
+	private transient String keySource;
 
 	public Tag() {
 	}
@@ -32,15 +48,162 @@ public class Tag<T> implements Serializable {
 		return value;
 	}
 
+	/**
+	 * Key by which tags are compared, equal tags have equal keys. Key is
+	 * computed by {@link #toKey(String)} once and cached until tag changes.
+	 *
+	 * @return normalized tag
+	 */
+	public String getKey() {
+		if (tag == null) {
+			return null;
+		}
+		if (key == null || keySource != tag) {
+			key = toKey(tag);
+			keySource = tag;
+		}
+		return key;
+	}
+
+	/**
+	 * Normalizes text into the form of tag key, so it can be compared with
+	 * keys of tags. Case and diacritics of latin letters are ignored (e.g.
+	 * "\u017dlt\u00fd" and "zlty", "Stra\u00dfe" and "strasse"), white space is trimmed
+	 * and its sequences are replaced by one space.
+	 *
+	 * @param value text
+	 * @return normalized text
+	 */
+	public static String toKey(String value) {
+		String lower = value.toLowerCase();
+		if (isFolded(lower)) {
+			return lower;
+		}
+
+		StringBuilder key = new StringBuilder(lower.length());
+		boolean space = false;
+		for (int i = 0; i < lower.length(); i++) {
+			char c = lower.charAt(i);
+			if (isWhiteSpace(c)) {
+				space = key.length() > 0;
+				continue;
+			}
+			if (space) {
+				key.append(' ');
+				space = false;
+			}
+			fold(c, key);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * @return <code>true</code> when lower case text contains only ASCII characters and single spaces between
+	 *         words, so it is already key
+	 */
+	private static boolean isFolded(String text) {
+		char previous = ' ';
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c > '\u007f' || (isWhiteSpace(c) && (c != ' ' || previous == ' '))) {
+				return false;
+			}
+			previous = c;
+		}
+		return previous != ' ' || text.length() == 0;
+	}
+
+	/**
+	 * Finds the shortest prefix of text which key has at least given length,
+	 * text is passed only once.
+	 *
+	 * @param text plain text
+	 * @param keyLength length of key
+	 * @return length of the prefix, length of text when its key is shorter
+	 */
+	static int getPrefixLength(String text, int keyLength) {
+		StringBuilder folded = new StringBuilder(2);
+		int length = 0;
+		boolean space = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = Character.toLowerCase(text.charAt(i));
+			if (isWhiteSpace(c)) {
+				space = length > 0;
+				continue;
+			}
+			if (space) {
+				length++;
+				space = false;
+			}
+			folded.setLength(0);
+			fold(c, folded);
+			length += folded.length();
+			if (length >= keyLength) {
+				return i + 1;
+			}
+		}
+		return text.length();
+	}
+
+	private static boolean isWhiteSpace(char c) {
+		return c <= ' ' || c == '\u00a0';
+	}
+
+	private static void fold(char c, StringBuilder key) {
+		int index = c - FOLDED_LATIN_FROM;
+		if (index < 0 || index >= FOLDED_LATIN.length()) {
+			key.append(c);
+			return;
+		}
+		char folded = FOLDED_LATIN.charAt(index);
+		if (folded != '*') {
+			key.append(folded);
+			return;
+		}
+		switch (c) {
+			case '\u00df':
+				key.append("ss");
+				break;
+			case '\u00e6':
+			case '\u00c6':
+				key.append("ae");
+				break;
+			case '\u00fe':
+			case '\u00de':
+				key.append("th");
+				break;
+			case '\u0133':
+			case '\u0132':
+				key.append("ij");
+				break;
+			default:
+				// oe ligature
+				key.append("oe");
+				break;
+		}
+	}
+
 	public boolean canBeSuggested(String input) {
-		return input.toLowerCase().startsWith(tag);
+		return startsWithKey(toKey(input));
+	}
+
+	/**
+	 * Same as {@link #canBeSuggested(String)} for already normalized input, so
+	 * the input is not normalized again for every tag.
+	 *
+	 * @param key key of input, see {@link #toKey(String)}
+	 * @return <code>true</code> when key of tag starts with given key
+	 */
+	public boolean startsWithKey(String key) {
+		return getKey().startsWith(key);
 	}
 
 	@Override
 	public boolean equals(Object obj) {
 		if (obj instanceof Tag) {
 			Tag t = (Tag) obj;
-			return t.tag.equalsIgnoreCase(tag);
+			String key = getKey();
+			return key != null ? key.equals(t.getKey()) : t.getKey() == null;
 		}
 		return false;
 	}
@@ -48,7 +211,8 @@ public class Tag<T> implements Serializable {
 	@Override
 	public int hashCode() {
 		int hash = 7;
-		hash = 97 * hash + (this.tag != null ? this.tag.hashCode() : 0);
+		String key = getKey();
+		hash = 97 * hash + (key != null ? key.hashCode() : 0);
 		return hash;
 	}
 
@@ -0,0 +1,72 @@
+package com.google.code.gwt.component.tag;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Event fired by {@link InputTag} when its tags were changed. All changes
+ * made within one event loop turn, e.g. appending of more tags or
+ * {@link InputTag#clear()}, are fired as one event with added and removed
+ * tags. Tags pending validation by {@link AsyncTagValidator} are reported
+ * as added when they are confirmed, rejected tags are not reported.
+ *
+ * @param <T>
+ */
+public class TagsChangedEvent<T extends Tag<?>> extends GwtEvent<TagsChangedEvent.Handler<T>> {
+
+	/**
+	 * Handler of {@link TagsChangedEvent}.
+	 *
+	 * @param <T>
+	 */
+	public interface Handler<T extends Tag<?>> extends EventHandler {
+
+		public void onTagsChanged(TagsChangedEvent<T> event);
+	}
+
+	private static Type<Handler<?>> TYPE;
+
+	private final List<T> addedTags;
+	private final List<T> removedTags;
+
+	protected TagsChangedEvent(List<T> addedTags, List<T> removedTags) {
+		this.addedTags = Collections.unmodifiableList(addedTags);
+		this.removedTags = Collections.unmodifiableList(removedTags);
+	}
+
+	public static Type<Handler<?>> getType() {
+		if (TYPE == null) {
+			TYPE = new Type<Handler<?>>();
+		}
+		return TYPE;
+	}
+
+	/**
+	 * @return tags added since the previous event in order of adding
+	 */
+	public List<T> getAddedTags() {
+		return addedTags;
+	}
+
+	/**
+	 * @return tags removed since the previous event in order of removing
+	 */
+	public List<T> getRemovedTags() {
+		return removedTags;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public Type<Handler<T>> getAssociatedType() {
+		return (Type) TYPE;
+	}
+
+	@Override
+	protected void dispatch(Handler<T> handler) {
+		handler.onTagsChanged(this);
+	}
+
+}
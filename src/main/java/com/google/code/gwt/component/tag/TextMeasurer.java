@@ -0,0 +1,24 @@
+package com.google.code.gwt.component.tag;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Interface for measuring width of text typed into input text of
+ * {@link InputTag}. Width of input text is updated on every keystroke, so
+ * implementations should avoid reading page layout.
+ *
+ * @see CanvasTextMeasurer
+ */
+public interface TextMeasurer {
+
+	/**
+	 * Measures width of text rendered by font of given input element.
+	 *
+	 * @param input input element
+	 * @param text measured text
+	 * @return width in pixels, or <code>-1</code> when text can not be measured and
+	 *         {@link InputTag} should measure it by hidden span element
+	 */
+	public int measureWidth(Element input, String text);
+
+}